@@ -0,0 +1,26 @@
+package com.artjomkuznetsov.deliveryfee.benchmarks;
+
+import com.artjomkuznetsov.deliveryfee.DeliveryFeeApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the application with its H2 database for benchmarks. The weather ingestion is disabled
+ * so that no benchmark iteration is disturbed by a request to the weather API.
+ */
+final class BenchmarkApplication {
+    private BenchmarkApplication() {}
+
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType) {
+        return new SpringApplicationBuilder(DeliveryFeeApplication.class)
+                .web(webApplicationType)
+                .properties(
+                        "server.port=0",
+                        "weather.data.cron.expression=-",
+                        "weather.data.retention.cron=-",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=warn")
+                .run();
+    }
+}
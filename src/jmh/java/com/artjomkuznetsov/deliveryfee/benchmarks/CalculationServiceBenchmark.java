@@ -0,0 +1,88 @@
+package com.artjomkuznetsov.deliveryfee.benchmarks;
+
+import com.artjomkuznetsov.deliveryfee.models.WeatherData;
+import com.artjomkuznetsov.deliveryfee.services.CalculationService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the fee calculation engine against the H2 database of the application and against in-memory repositories.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CalculationServiceBenchmark {
+    private static final Optional<String> CITY = Optional.of("tallinn");
+    private static final Optional<String> VEHICLE = Optional.of("bike");
+    private static final LocalDateTime HISTORICAL_DATE_TIME = LocalDateTime.of(2024, Month.MARCH, 17, 15, 17, 40);
+
+    @Param({"in-memory", "h2"})
+    public String repositories;
+
+    @Param({"mild", "cold", "windy", "snow", "rain", "forbidden-wind", "forbidden-phenomenon"})
+    public String weather;
+
+    private ConfigurableApplicationContext context;
+    private CalculationService calculationService;
+    private WeatherData weatherData;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (repositories.equals("h2")) {
+            context = BenchmarkApplication.start(WebApplicationType.NONE);
+            calculationService = context.getBean(CalculationService.class);
+        } else {
+            calculationService = InMemoryRepositories.calculationService();
+        }
+        weatherData = switch (weather) {
+            case "cold" -> weatherData(-15, 5, "");
+            case "windy" -> weatherData(5, 15, "");
+            case "snow" -> weatherData(-5, 5, "Light snowfall");
+            case "rain" -> weatherData(5, 5, "Heavy rain");
+            case "forbidden-wind" -> weatherData(5, 25, "");
+            case "forbidden-phenomenon" -> weatherData(5, 5, "Thunderstorm");
+            default -> weatherData(5, 5, "");
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    @Benchmark
+    public float calculateTotalFeeCurrentWeather() throws Exception {
+        return calculationService.calculateTotalFee(CITY, VEHICLE);
+    }
+
+    @Benchmark
+    public float calculateTotalFeeHistoricalWeather() throws Exception {
+        return calculationService.calculateTotalFee(CITY, VEHICLE, Optional.of(HISTORICAL_DATE_TIME));
+    }
+
+    @Benchmark
+    public float calculateExtraFee() {
+        return calculationService.calculateExtraFee("bike", weatherData);
+    }
+
+    @Benchmark
+    public WeatherData getWeatherDataByLocalDateTime() throws Exception {
+        return calculationService.getWeatherDataByLocalDateTime("Tallinn-Harku", HISTORICAL_DATE_TIME);
+    }
+
+    private static WeatherData weatherData(float airTemperature, float windSpeed, String phenomenon) {
+        return new WeatherData("Tallinn-Harku", "26038", airTemperature, windSpeed, phenomenon,
+                InMemoryRepositories.SEED_OBSERVATION_TIMESTAMP);
+    }
+}
@@ -0,0 +1,56 @@
+package com.artjomkuznetsov.deliveryfee.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Measures the whole GET /fee request through MockMvc, including argument conversion, link building and JSON rendering.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DeliveryFeeControllerBenchmark {
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(WebApplicationType.SERVLET);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String getFeeCurrentWeather() throws Exception {
+        return mockMvc.perform(get("/fee").param("city", "tallinn").param("vehicle", "bike"))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Benchmark
+    public String getFeeHistoricalWeather() throws Exception {
+        return mockMvc.perform(get("/fee").param("city", "tallinn").param("vehicle", "bike")
+                        .param("dateTime", "2024-03-17T15:17:40"))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    @Benchmark
+    public String getLeanFeeCurrentWeather() throws Exception {
+        return mockMvc.perform(get("/fee").param("city", "tallinn").param("vehicle", "bike").param("lean", "true"))
+                .andReturn().getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,91 @@
+package com.artjomkuznetsov.deliveryfee.benchmarks;
+
+import com.artjomkuznetsov.deliveryfee.cache.FeeRuleCache;
+import com.artjomkuznetsov.deliveryfee.cache.FeeRuleHistory;
+import com.artjomkuznetsov.deliveryfee.cache.LatestWeatherDataCache;
+import com.artjomkuznetsov.deliveryfee.cache.StationRegistry;
+import com.artjomkuznetsov.deliveryfee.metrics.FeeMetrics;
+import com.artjomkuznetsov.deliveryfee.models.CityStation;
+import com.artjomkuznetsov.deliveryfee.models.RegionalBaseFee;
+import com.artjomkuznetsov.deliveryfee.models.WeatherData;
+import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.AirTemperatureConditions;
+import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WeatherPhenomenonConditions;
+import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WindSpeedConditions;
+import com.artjomkuznetsov.deliveryfee.repositories.*;
+import com.artjomkuznetsov.deliveryfee.services.CalculationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Repository stand-ins backed by plain collections, seeded with the same data as the migrations
+ * V2__seed_fee_rules.sql and R__sample_weather_data.sql.
+ * Only the methods used by the fee calculation are implemented.
+ */
+final class InMemoryRepositories {
+    static final long SEED_OBSERVATION_TIMESTAMP = 1710681299L;
+
+    private InMemoryRepositories() {}
+
+    static CalculationService calculationService() {
+        List<CityStation> cityStations = List.of(
+                new CityStation("tallinn", "Tallinn-Harku"),
+                new CityStation("tartu", "Tartu-Tõravere"),
+                new CityStation("pärnu", "Pärnu"));
+        List<RegionalBaseFee> baseFees = List.of(
+                new RegionalBaseFee("tallinn", 4, 3.5f, 3),
+                new RegionalBaseFee("tartu", 3.5f, 3, 2.5f),
+                new RegionalBaseFee("pärnu", 3, 2.5f, 2));
+        AirTemperatureConditions air = new AirTemperatureConditions(List.of("scooter", "bike"), -10, 1, -10, 0, 0.5f);
+        WindSpeedConditions wind = new WindSpeedConditions(List.of("bike"), 10, 20, 0.5f, 20);
+        WeatherPhenomenonConditions phenomenon = new WeatherPhenomenonConditions(List.of("scooter", "bike"), 1, 0.5f,
+                List.of("Glaze", "Hail", "Thunder", "Thunderstorm"));
+
+        Map<String, NavigableMap<Long, WeatherData>> weatherData = new HashMap<>();
+        for (WeatherData data : List.of(
+                new WeatherData("Tallinn-Harku", "26038", 2, 5, "", SEED_OBSERVATION_TIMESTAMP),
+                new WeatherData("Tartu-Tõravere", "26242", 1, 6, "", SEED_OBSERVATION_TIMESTAMP),
+                new WeatherData("Pärnu", "41803", 3, 4, "", SEED_OBSERVATION_TIMESTAMP))) {
+            weatherData.computeIfAbsent(data.getStation(), station -> new TreeMap<>()).put(data.getObservationTimestamp(), data);
+        }
+
+        WeatherDataRepository weatherDataRepository = repository(WeatherDataRepository.class, Map.of(
+                "findFirstByStationOrderByObservationTimestampDesc", args -> {
+                    NavigableMap<Long, WeatherData> byTimestamp = weatherData.get((String) args[0]);
+                    return byTimestamp != null ? byTimestamp.lastEntry().getValue() : null;
+                },
+                "findFirstByStationAndObservationTimestampBetweenOrderByObservationTimestampDesc", args -> {
+                    NavigableMap<Long, WeatherData> byTimestamp = weatherData.get((String) args[0]);
+                    Map.Entry<Long, WeatherData> floor = byTimestamp != null ? byTimestamp.floorEntry((Long) args[2]) : null;
+                    return Optional.ofNullable(floor != null && floor.getKey() >= (Long) args[1] ? floor.getValue() : null);
+                }));
+        FeeRuleCache feeRuleCache = new FeeRuleCache(
+                repository(RegionalBaseFeeRepository.class, Map.of("findAll", args -> baseFees)),
+                repository(AirTemperatureConditionsRepository.class, Map.of("findFirstBy", args -> Optional.of(air))),
+                repository(WindSpeedConditionsRepository.class, Map.of("findFirstBy", args -> Optional.of(wind))),
+                repository(WeatherPhenomenonConditionsRepository.class, Map.of("findFirstBy", args -> Optional.of(phenomenon))));
+
+        FeeRuleHistory feeRuleHistory = new FeeRuleHistory(
+                repository(FeeRuleVersionRepository.class, Map.of("findByIdGreaterThanOrderById", args -> List.of())),
+                new ObjectMapper().findAndRegisterModules(), feeRuleCache);
+
+        StationRegistry stationRegistry = new StationRegistry(
+                repository(CityStationRepository.class, Map.of("findAll", args -> cityStations)));
+
+        return new CalculationService(weatherDataRepository, feeRuleCache, feeRuleHistory, stationRegistry, new LatestWeatherDataCache(weatherDataRepository), 3600,
+                new FeeMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Function<Object[], Object> implementation = methods.get(method.getName());
+            if (implementation == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return implementation.apply(args);
+        }));
+    }
+}
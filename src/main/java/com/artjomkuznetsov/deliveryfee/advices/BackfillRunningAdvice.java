@@ -0,0 +1,20 @@
+package com.artjomkuznetsov.deliveryfee.advices;
+
+import com.artjomkuznetsov.deliveryfee.controllers.responses.ErrorResponse;
+import com.artjomkuznetsov.deliveryfee.exceptions.BackfillRunningException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+@ControllerAdvice
+public class BackfillRunningAdvice extends ResponseEntityExceptionHandler {
+    @ExceptionHandler(BackfillRunningException.class)
+    public ResponseEntity<Object> backfillRunningHandler(BackfillRunningException exception, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(exception.getMessage());
+        return handleExceptionInternal(exception, errorResponse, new HttpHeaders(), HttpStatus.CONFLICT, request);
+    }
+}
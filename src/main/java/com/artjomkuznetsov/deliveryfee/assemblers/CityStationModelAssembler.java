@@ -0,0 +1,22 @@
+package com.artjomkuznetsov.deliveryfee.assemblers;
+
+import com.artjomkuznetsov.deliveryfee.controllers.CityStationController;
+import com.artjomkuznetsov.deliveryfee.models.CityStation;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.server.RepresentationModelAssembler;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+@Component
+public class CityStationModelAssembler implements RepresentationModelAssembler<CityStation, EntityModel<CityStation>> {
+
+    @Override
+    public EntityModel<CityStation> toModel(@NonNull CityStation cityStation) {
+        return EntityModel.of(cityStation,
+                linkTo(methodOn(CityStationController.class).oneByCity(cityStation.getCity())).withSelfRel(),
+                linkTo(methodOn(CityStationController.class).all()).withRel("cities"));
+    }
+}
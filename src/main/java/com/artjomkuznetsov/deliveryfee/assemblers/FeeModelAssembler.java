@@ -0,0 +1,47 @@
+package com.artjomkuznetsov.deliveryfee.assemblers;
+
+import com.artjomkuznetsov.deliveryfee.controllers.DeliveryFeeController;
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeResponse;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+/**
+ * Adds the self link to a calculated fee. The path of the fee endpoint is resolved once,
+ * so building the link doesn't need a proxy invocation of the controller on every request.
+ */
+@Component
+public class FeeModelAssembler {
+    private final String feePath = DeliveryFeeController.class.getAnnotation(RequestMapping.class).value()[0];
+
+    public EntityModel<FeeResponse> toModel(FeeResponse feeResponse, Optional<String> city, Optional<String> vehicle,
+                                            Optional<LocalDateTime> dateTime) {
+        StringBuilder href = new StringBuilder(ServletUriComponentsBuilder.fromCurrentContextPath().toUriString())
+                .append(feePath);
+        char separator = '?';
+        if (city.isPresent()) {
+            href.append(separator).append("city=").append(encode(city.get()));
+            separator = '&';
+        }
+        if (vehicle.isPresent()) {
+            href.append(separator).append("vehicle=").append(encode(vehicle.get()));
+            separator = '&';
+        }
+        if (dateTime.isPresent()) {
+            href.append(separator).append("dateTime=").append(dateTime.get().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        }
+        return EntityModel.of(feeResponse, Link.of(href.toString()).withSelfRel());
+    }
+
+    private static String encode(String value) {
+        return UriUtils.encodeQueryParam(value, StandardCharsets.UTF_8);
+    }
+}
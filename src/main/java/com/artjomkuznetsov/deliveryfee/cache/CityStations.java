@@ -0,0 +1,75 @@
+package com.artjomkuznetsov.deliveryfee.cache;
+
+import com.artjomkuznetsov.deliveryfee.models.CityStation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable copy of the station registry taken at one point in time.
+ * Cities are keyed in lower case, the same way the fee calculation normalizes the requested city.
+ */
+public final class CityStations {
+    private final Map<String, String> stationsByCity;
+    private final List<String> cities;
+    private final Set<String> stations;
+
+    /**
+     * @param cityStations All cities with their stations.
+     */
+    public CityStations(List<CityStation> cityStations) {
+        Map<String, String> stationsByCity = new HashMap<>();
+        List<String> cities = new ArrayList<>(cityStations.size());
+        for (CityStation cityStation : cityStations) {
+            String city = normalize(cityStation.getCity());
+            if (stationsByCity.put(city, cityStation.getStation()) == null) {
+                cities.add(city);
+            }
+        }
+        this.stationsByCity = Map.copyOf(stationsByCity);
+        this.cities = List.copyOf(cities);
+        this.stations = Set.copyOf(stationsByCity.values());
+    }
+
+    /**
+     * @param city The name of the city in any case.
+     * @return The name in the form the registry keys cities by, lower-cased independently of the default locale.
+     */
+    public static String normalize(String city) {
+        return city.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @param city The name of the city in lower case.
+     * @return The name of the station of the city or null if the city is not registered.
+     */
+    public String getStation(String city) {
+        return stationsByCity.get(city);
+    }
+
+    /**
+     * @param city The name of the city in lower case.
+     * @return true if the city is registered.
+     */
+    public boolean containsCity(String city) {
+        return stationsByCity.containsKey(city);
+    }
+
+    /**
+     * @return The registered cities in lower case, in the order they were loaded.
+     */
+    public List<String> getCities() {
+        return cities;
+    }
+
+    /**
+     * @return The distinct stations of all registered cities.
+     */
+    public Set<String> getStations() {
+        return stations;
+    }
+}
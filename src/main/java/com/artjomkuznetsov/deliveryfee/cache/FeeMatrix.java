@@ -0,0 +1,79 @@
+package com.artjomkuznetsov.deliveryfee.cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed total fees for every city and vehicle, based on one rule snapshot, one registry snapshot and the latest weather data.
+ * Fees are stored in a flat array indexed by {@code cityIndex * vehicleCount + vehicleIndex}.
+ * A cell holds the fee, {@link #FORBIDDEN} if the vehicle is forbidden or {@link Float#NaN} if the fee couldn't be calculated.
+ */
+public final class FeeMatrix {
+    public static final float FORBIDDEN = -1;
+
+    private final Map<String, Integer> cityIndexes;
+    private final Map<String, Integer> vehicleIndexes;
+    private final List<String> cities;
+    private final List<String> vehicles;
+    private final float[] fees;
+    private final FeeRuleSnapshot rules;
+    private final CityStations cityStations;
+    private final long weatherVersion;
+
+    /**
+     * @param cityStations The registry snapshot whose cities, in their order, are the rows of the fee array.
+     * @param vehicles The vehicles, in the order of the columns of the fee array.
+     * @param fees The fees, one per city and vehicle. The array is not copied.
+     * @param rules The rule snapshot the fees were calculated from.
+     * @param weatherVersion The version of the latest weather data the fees were calculated from.
+     */
+    public FeeMatrix(CityStations cityStations, List<String> vehicles, float[] fees, FeeRuleSnapshot rules, long weatherVersion) {
+        this.cities = cityStations.getCities();
+        this.vehicles = List.copyOf(vehicles);
+        this.cityIndexes = indexesOf(this.cities);
+        this.vehicleIndexes = indexesOf(this.vehicles);
+        this.fees = fees;
+        this.rules = rules;
+        this.cityStations = cityStations;
+        this.weatherVersion = weatherVersion;
+    }
+
+    /**
+     * @param city The name of the city in lower case.
+     * @param vehicle The type of vehicle in lower case.
+     * @return The precomputed fee, {@link #FORBIDDEN}, or {@link Float#NaN} if the city or vehicle is unknown
+     * or the fee couldn't be calculated.
+     */
+    public float getFee(String city, String vehicle) {
+        Integer cityIndex = cityIndexes.get(city);
+        Integer vehicleIndex = vehicleIndexes.get(vehicle);
+        if (cityIndex == null || vehicleIndex == null) {
+            return Float.NaN;
+        }
+        return fees[cityIndex * vehicles.size() + vehicleIndex];
+    }
+
+    /**
+     * @return true if the matrix was calculated from the given rules, registry and weather data version.
+     */
+    public boolean isBuiltFrom(FeeRuleSnapshot rules, CityStations cityStations, long weatherVersion) {
+        return this.rules == rules && this.cityStations == cityStations && this.weatherVersion == weatherVersion;
+    }
+
+    public List<String> getCities() {
+        return cities;
+    }
+
+    public List<String> getVehicles() {
+        return vehicles;
+    }
+
+    private static Map<String, Integer> indexesOf(List<String> values) {
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            indexes.put(values.get(i), i);
+        }
+        return Map.copyOf(indexes);
+    }
+}
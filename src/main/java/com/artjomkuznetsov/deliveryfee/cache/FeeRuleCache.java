@@ -0,0 +1,67 @@
+package com.artjomkuznetsov.deliveryfee.cache;
+
+import com.artjomkuznetsov.deliveryfee.events.FeeRulesChangedEvent;
+import com.artjomkuznetsov.deliveryfee.repositories.AirTemperatureConditionsRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.RegionalBaseFeeRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.WeatherPhenomenonConditionsRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.WindSpeedConditionsRepository;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link FeeRuleSnapshot}. The snapshot is loaded on first use and replaced as a whole
+ * after every committed rule change, so readers never see a partially applied update and never query the database.
+ */
+@Component
+public class FeeRuleCache {
+    private final AtomicReference<FeeRuleSnapshot> snapshot = new AtomicReference<>();
+
+    private final RegionalBaseFeeRepository baseFeeRepository;
+    private final AirTemperatureConditionsRepository airTemperatureRepository;
+    private final WindSpeedConditionsRepository windSpeedRepository;
+    private final WeatherPhenomenonConditionsRepository weatherPhenomenonRepository;
+
+    public FeeRuleCache(RegionalBaseFeeRepository baseFeeRepository, AirTemperatureConditionsRepository airTemperatureRepository, WindSpeedConditionsRepository windSpeedRepository, WeatherPhenomenonConditionsRepository weatherPhenomenonRepository) {
+        this.baseFeeRepository = baseFeeRepository;
+        this.airTemperatureRepository = airTemperatureRepository;
+        this.windSpeedRepository = windSpeedRepository;
+        this.weatherPhenomenonRepository = weatherPhenomenonRepository;
+    }
+
+    /**
+     * @return The current rule snapshot, loading it from the database if it hasn't been loaded yet.
+     */
+    public FeeRuleSnapshot current() {
+        FeeRuleSnapshot current = snapshot.get();
+        return current != null ? current : reload();
+    }
+
+    /**
+     * Loads all rules from the database and atomically replaces the current snapshot.
+     * Reloads are serialized so that an older snapshot can never overwrite a newer one.
+     * @return The newly loaded snapshot.
+     */
+    public synchronized FeeRuleSnapshot reload() {
+        FeeRuleSnapshot loaded = new FeeRuleSnapshot(
+                baseFeeRepository.findAll(),
+                airTemperatureRepository.findFirstBy().orElse(null),
+                windSpeedRepository.findFirstBy().orElse(null),
+                weatherPhenomenonRepository.findFirstBy().orElse(null));
+        snapshot.set(loaded);
+        return loaded;
+    }
+
+    /**
+     * Reloads the snapshot once the transaction that changed the rules has been committed.
+     * If the change was made outside a transaction the snapshot is reloaded immediately.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFeeRulesChanged(FeeRulesChangedEvent event) {
+        reload();
+    }
+}
@@ -0,0 +1,104 @@
+package com.artjomkuznetsov.deliveryfee.cache;
+
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeRulesDocument;
+import com.artjomkuznetsov.deliveryfee.events.FeeRulesChangedEvent;
+import com.artjomkuznetsov.deliveryfee.models.FeeRuleVersion;
+import com.artjomkuznetsov.deliveryfee.repositories.FeeRuleVersionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds a {@link FeeRuleSnapshot} of every recorded {@link FeeRuleVersion}, indexed by the time from which it was in force,
+ * so that the rules of a historical quote are found without querying the database.
+ * The versions are loaded on first use and the versions recorded since are added after every committed rule change.
+ * The index is replaced as a whole, so readers never see a partially applied update.
+ */
+@Component
+public class FeeRuleHistory {
+    private final AtomicReference<Versions> versions = new AtomicReference<>();
+
+    private final FeeRuleVersionRepository repository;
+    private final ObjectMapper objectMapper;
+    private final FeeRuleCache feeRuleCache;
+
+    public FeeRuleHistory(FeeRuleVersionRepository repository, ObjectMapper objectMapper, FeeRuleCache feeRuleCache) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.feeRuleCache = feeRuleCache;
+    }
+
+    /**
+     * @param instant The time of the quote.
+     * @return The rules in force at the specified time. Before the first recorded version the rules of the first version
+     * are used, and the current rules if no version has been recorded yet.
+     */
+    public FeeRuleSnapshot at(Instant instant) {
+        Versions current = versions.get();
+        if (current == null) {
+            current = load();
+        }
+        Map.Entry<Long, FeeRuleSnapshot> version = current.byEffectiveFrom().floorEntry(instant.toEpochMilli());
+        if (version == null) {
+            version = current.byEffectiveFrom().firstEntry();
+        }
+        return version != null ? version.getValue() : feeRuleCache.current();
+    }
+
+    /**
+     * Adds the versions recorded since the last load to a copy of the index and replaces the index with it.
+     * Reloads are serialized so that an older index can never overwrite a newer one.
+     */
+    public void reload() {
+        load();
+    }
+
+    private synchronized Versions load() {
+        Versions current = versions.get();
+        long lastId = current != null ? current.lastId() : 0;
+        NavigableMap<Long, FeeRuleSnapshot> byEffectiveFrom = current != null
+                ? new TreeMap<>(current.byEffectiveFrom()) : new TreeMap<>();
+        for (FeeRuleVersion version : repository.findByIdGreaterThanOrderById(lastId)) {
+            // Of two versions in force from the same time, the one recorded later wins.
+            byEffectiveFrom.put(version.getEffectiveFrom(), snapshotOf(version));
+            lastId = version.getId();
+        }
+        Versions loaded = new Versions(lastId, byEffectiveFrom);
+        versions.set(loaded);
+        return loaded;
+    }
+
+    /**
+     * Adds the version recorded with the rule change once its transaction has been committed.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFeeRulesChanged(FeeRulesChangedEvent event) {
+        reload();
+    }
+
+    private FeeRuleSnapshot snapshotOf(FeeRuleVersion version) {
+        try {
+            FeeRulesDocument rules = objectMapper.readValue(version.getRules(), FeeRulesDocument.class);
+            return new FeeRuleSnapshot(rules.baseFees(), rules.airTemperatureConditions(), rules.windSpeedConditions(),
+                    rules.phenomenonConditions());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("The fee rules of version " + version.getId() + " could not be read.", e);
+        }
+    }
+
+    /**
+     * @param lastId The id of the last loaded version.
+     * @param byEffectiveFrom The rules by the epoch milliseconds from which they were in force.
+     */
+    private record Versions(long lastId, NavigableMap<Long, FeeRuleSnapshot> byEffectiveFrom) {}
+}
@@ -0,0 +1,154 @@
+package com.artjomkuznetsov.deliveryfee.cache;
+
+import com.artjomkuznetsov.deliveryfee.exceptions.ExtraWeatherConditionsNotFoundException;
+import com.artjomkuznetsov.deliveryfee.exceptions.RegionalBaseFeeNotFoundException;
+import com.artjomkuznetsov.deliveryfee.models.RegionalBaseFee;
+import com.artjomkuznetsov.deliveryfee.models.WeatherPhenomenon;
+import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.AirTemperatureConditions;
+import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WeatherPhenomenonConditions;
+import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WindSpeedConditions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable copy of all fee rules taken at one point in time.
+ * The entities held by a snapshot are detached copies, so later changes to the managed entities are not visible here.
+ */
+public final class FeeRuleSnapshot {
+    private final Map<String, RegionalBaseFee> baseFees;
+    private final AirTemperatureConditions airConditions;
+    private final WindSpeedConditions windConditions;
+    private final WeatherPhenomenonConditions phenomenonConditions;
+    private final float[] phenomenonFees;
+
+    /**
+     * Creates a snapshot from the given rules. Missing extra fee conditions may be passed as null,
+     * the error is raised only when a calculation actually needs them.
+     * @param baseFees All regional base fees.
+     * @param airConditions The air temperature conditions or null if they are not configured.
+     * @param windConditions The wind speed conditions or null if they are not configured.
+     * @param phenomenonConditions The weather phenomenon conditions or null if they are not configured.
+     */
+    public FeeRuleSnapshot(List<RegionalBaseFee> baseFees, AirTemperatureConditions airConditions,
+                           WindSpeedConditions windConditions, WeatherPhenomenonConditions phenomenonConditions) {
+        Map<String, RegionalBaseFee> baseFeesByCity = new HashMap<>();
+        for (RegionalBaseFee baseFee : baseFees) {
+            baseFeesByCity.put(baseFee.getCity(), copyOf(baseFee));
+        }
+        this.baseFees = Map.copyOf(baseFeesByCity);
+        this.airConditions = airConditions != null ? copyOf(airConditions) : null;
+        this.windConditions = windConditions != null ? copyOf(windConditions) : null;
+        this.phenomenonConditions = phenomenonConditions != null ? copyOf(phenomenonConditions) : null;
+        this.phenomenonFees = phenomenonConditions != null ? compilePhenomenonFees(phenomenonConditions) : null;
+    }
+
+    /**
+     * @param city The name of the city in lower case.
+     * @return The regional base fee for the specified city.
+     * @throws RegionalBaseFeeNotFoundException if no RegionalBaseFee is found for the specified city.
+     */
+    public RegionalBaseFee getBaseFee(String city) {
+        RegionalBaseFee baseFee = baseFees.get(city);
+        if (baseFee == null) {
+            throw new RegionalBaseFeeNotFoundException(city);
+        }
+        return baseFee;
+    }
+
+    /**
+     * @throws ExtraWeatherConditionsNotFoundException if the air temperature conditions are not configured.
+     */
+    public AirTemperatureConditions getAirConditions() {
+        if (airConditions == null) {
+            throw new ExtraWeatherConditionsNotFoundException();
+        }
+        return airConditions;
+    }
+
+    /**
+     * @throws ExtraWeatherConditionsNotFoundException if the wind speed conditions are not configured.
+     */
+    public WindSpeedConditions getWindConditions() {
+        if (windConditions == null) {
+            throw new ExtraWeatherConditionsNotFoundException();
+        }
+        return windConditions;
+    }
+
+    /**
+     * @throws ExtraWeatherConditionsNotFoundException if the weather phenomenon conditions are not configured.
+     */
+    public WeatherPhenomenonConditions getPhenomenonConditions() {
+        if (phenomenonConditions == null) {
+            throw new ExtraWeatherConditionsNotFoundException();
+        }
+        return phenomenonConditions;
+    }
+
+    /**
+     * @param phenomenon The observed weather phenomenon.
+     * @return The extra fee for the phenomenon or -1 if the phenomenon is forbidden.
+     * @throws ExtraWeatherConditionsNotFoundException if the weather phenomenon conditions are not configured.
+     */
+    public float getPhenomenonFee(WeatherPhenomenon phenomenon) {
+        if (phenomenonFees == null) {
+            throw new ExtraWeatherConditionsNotFoundException();
+        }
+        return phenomenonFees[phenomenon.ordinal()];
+    }
+
+    /**
+     * Compiles the phenomenon conditions into a table indexed by phenomenon ordinal.
+     * Snow, sleet and rain take precedence over a forbidden phenomenon, as they did in the original calculation.
+     * Forbidden phenomena that the weather API doesn't know are ignored, since no observation can match them.
+     */
+    private static float[] compilePhenomenonFees(WeatherPhenomenonConditions conditions) {
+        float[] fees = new float[WeatherPhenomenon.count()];
+        for (String forbidden : conditions.getForbiddenPhenomenons()) {
+            WeatherPhenomenon phenomenon = WeatherPhenomenon.fromText(forbidden);
+            if (phenomenon != WeatherPhenomenon.UNKNOWN && phenomenon != WeatherPhenomenon.NONE) {
+                fees[phenomenon.ordinal()] = -1;
+            }
+        }
+        for (WeatherPhenomenon phenomenon : WeatherPhenomenon.values()) {
+            switch (phenomenon.getCategory()) {
+                case SNOW_OR_SLEET -> fees[phenomenon.ordinal()] = conditions.getSnowOrSleetFee();
+                case RAIN -> fees[phenomenon.ordinal()] = conditions.getRainFee();
+                default -> {}
+            }
+        }
+        return fees;
+    }
+
+    private static RegionalBaseFee copyOf(RegionalBaseFee baseFee) {
+        RegionalBaseFee copy = new RegionalBaseFee(baseFee.getCity(), baseFee.getCarFee(), baseFee.getScooterFee(), baseFee.getBikeFee());
+        copy.setId(baseFee.getId());
+        return copy;
+    }
+
+    private static AirTemperatureConditions copyOf(AirTemperatureConditions conditions) {
+        AirTemperatureConditions copy = new AirTemperatureConditions(List.copyOf(conditions.getVehicleTypes()),
+                conditions.getLessThan(), conditions.getLessThanFee(),
+                conditions.getBetweenMin(), conditions.getBetweenMax(), conditions.getBetweenFee());
+        copy.setId(conditions.getId());
+        return copy;
+    }
+
+    private static WindSpeedConditions copyOf(WindSpeedConditions conditions) {
+        WindSpeedConditions copy = new WindSpeedConditions(List.copyOf(conditions.getVehicleTypes()),
+                conditions.getBetweenMin(), conditions.getBetweenMax(), conditions.getBetweenFee(),
+                conditions.getForbiddenSpeed());
+        copy.setId(conditions.getId());
+        return copy;
+    }
+
+    private static WeatherPhenomenonConditions copyOf(WeatherPhenomenonConditions conditions) {
+        WeatherPhenomenonConditions copy = new WeatherPhenomenonConditions(List.copyOf(conditions.getVehicleTypes()),
+                conditions.getSnowOrSleetFee(), conditions.getRainFee(),
+                List.copyOf(conditions.getForbiddenPhenomenons()));
+        copy.setId(conditions.getId());
+        return copy;
+    }
+}
@@ -0,0 +1,100 @@
+package com.artjomkuznetsov.deliveryfee.cache;
+
+import com.artjomkuznetsov.deliveryfee.models.WeatherData;
+import com.artjomkuznetsov.deliveryfee.repositories.WeatherDataRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.OptionalLong;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the latest weather observation of every station in memory.
+ * New observations are published by the ingestion, readers only fall back to the database
+ * for a station that hasn't been seen since startup. Instances that don't ingest themselves reload the stations instead.
+ */
+@Component
+public class LatestWeatherDataCache {
+    private final ConcurrentMap<String, WeatherData> latestByStation = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong latestObservationTimestamp = new AtomicLong(Long.MIN_VALUE);
+
+    private final WeatherDataRepository weatherDataRepository;
+
+    public LatestWeatherDataCache(WeatherDataRepository weatherDataRepository) {
+        this.weatherDataRepository = weatherDataRepository;
+    }
+
+    /**
+     * @param station The name of the station.
+     * @return The latest weather data of the station or null if there is no weather data for it.
+     */
+    public WeatherData get(String station) {
+        WeatherData latest = latestByStation.get(station);
+        if (latest == null) {
+            WeatherData stored = weatherDataRepository.findFirstByStationOrderByObservationTimestampDesc(station);
+            if (stored != null) {
+                latest = publish(stored);
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * @param station The name of the station.
+     * @return The latest weather data of the station in memory or null, without falling back to the database.
+     */
+    public WeatherData getIfPresent(String station) {
+        return latestByStation.get(station);
+    }
+
+    /**
+     * Publishes an observation. It replaces the current one only if it is newer, so out of order publications
+     * can't move a station back in time and publishing the current observation again doesn't change the version.
+     * @param weatherData The observation to publish.
+     * @return The latest observation of the station after publishing.
+     */
+    public WeatherData publish(WeatherData weatherData) {
+        WeatherData latest = latestByStation.merge(weatherData.getStation(), weatherData,
+                (current, candidate) -> candidate.getObservationTimestamp() > current.getObservationTimestamp() ? candidate : current);
+        if (latest == weatherData) {
+            version.incrementAndGet();
+            latestObservationTimestamp.accumulateAndGet(weatherData.getObservationTimestamp(), Math::max);
+        }
+        return latest;
+    }
+
+    /**
+     * Publishes the latest stored observation of every given station, which may have been saved by another instance.
+     * @param stations The names of the stations.
+     * @return Whether a newer observation of any station has been found.
+     */
+    public boolean reload(Collection<String> stations) {
+        long previousVersion = version.get();
+        for (String station : stations) {
+            WeatherData stored = weatherDataRepository.findFirstByStationOrderByObservationTimestampDesc(station);
+            if (stored != null) {
+                publish(stored);
+            }
+        }
+        return version.get() != previousVersion;
+    }
+
+    /**
+     * @return The timestamp of the latest published observation of any station or an empty optional if none has been published.
+     */
+    public OptionalLong getLatestObservationTimestamp() {
+        long timestamp = latestObservationTimestamp.get();
+        return timestamp == Long.MIN_VALUE ? OptionalLong.empty() : OptionalLong.of(timestamp);
+    }
+
+    /**
+     * @return A number that changes every time the latest weather data of any station changes.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+}
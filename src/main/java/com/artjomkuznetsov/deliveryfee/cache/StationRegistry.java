@@ -0,0 +1,53 @@
+package com.artjomkuznetsov.deliveryfee.cache;
+
+import com.artjomkuznetsov.deliveryfee.events.CityStationsChangedEvent;
+import com.artjomkuznetsov.deliveryfee.repositories.CityStationRepository;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link CityStations}, shared by the fee calculation and the weather data ingestion.
+ * Like the {@link FeeRuleCache}, the snapshot is loaded on first use and replaced as a whole after every committed change,
+ * so resolving the station of a city never queries the database.
+ */
+@Component
+public class StationRegistry {
+    private final AtomicReference<CityStations> snapshot = new AtomicReference<>();
+
+    private final CityStationRepository repository;
+
+    public StationRegistry(CityStationRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * @return The current registry snapshot, loading it from the database if it hasn't been loaded yet.
+     */
+    public CityStations current() {
+        CityStations current = snapshot.get();
+        return current != null ? current : reload();
+    }
+
+    /**
+     * Loads all cities from the database and atomically replaces the current snapshot.
+     * @return The newly loaded snapshot.
+     */
+    public synchronized CityStations reload() {
+        CityStations loaded = new CityStations(repository.findAll());
+        snapshot.set(loaded);
+        return loaded;
+    }
+
+    /**
+     * Reloads the snapshot once the transaction that changed the registry has been committed.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCityStationsChanged(CityStationsChangedEvent event) {
+        reload();
+    }
+}
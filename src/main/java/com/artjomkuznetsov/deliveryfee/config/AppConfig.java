@@ -1,13 +1,25 @@
 package com.artjomkuznetsov.deliveryfee.config;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.client.RestTemplate;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.Executors;
 
 @Configuration
+@EnableConfigurationProperties({WeatherApiProperties.class, WeatherScheduleProperties.class})
 public class AppConfig {
+    /**
+     * Client for the weather API. Responses are handled on virtual threads, because the handlers parse
+     * the response while it is being received and write to the database.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public HttpClient weatherApiHttpClient(WeatherApiProperties properties) {
+        return HttpClient.newBuilder()
+                .connectTimeout(properties.connectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
     }
 }
@@ -0,0 +1,33 @@
+package com.artjomkuznetsov.deliveryfee.config;
+
+import com.artjomkuznetsov.deliveryfee.database.ConcurrencyLimitingDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Wraps the data source into a {@link ConcurrencyLimitingDataSource}. With virtual threads enabled
+     * every request runs on its own thread, so database access is bounded here instead of by the size of a thread pool.
+     */
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(
+            @Value("${database.concurrency.limit:10}") int limit,
+            @Value("${database.concurrency.acquire-timeout:30s}") Duration acquireTimeout) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitingDataSource)) {
+                    return new ConcurrencyLimitingDataSource(dataSource, limit, acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+}
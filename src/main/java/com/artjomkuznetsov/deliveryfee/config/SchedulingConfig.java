@@ -0,0 +1,48 @@
+package com.artjomkuznetsov.deliveryfee.config;
+
+import com.artjomkuznetsov.deliveryfee.cache.LatestWeatherDataCache;
+import com.artjomkuznetsov.deliveryfee.services.ScheduledService;
+import com.artjomkuznetsov.deliveryfee.services.WeatherFeedClient;
+import com.artjomkuznetsov.deliveryfee.utils.AdaptiveIngestionTrigger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * Schedules the weather data ingestion, either adaptively or on a fixed cron expression.
+ * The cron expression "-" disables the ingestion in both cases.
+ */
+@Configuration
+public class SchedulingConfig implements SchedulingConfigurer {
+    private static final String DISABLED = "-";
+
+    private final ScheduledService scheduledService;
+    private final WeatherFeedClient weatherFeedClient;
+    private final LatestWeatherDataCache latestWeatherDataCache;
+    private final WeatherScheduleProperties scheduleProperties;
+    private final String cronExpression;
+
+    public SchedulingConfig(ScheduledService scheduledService, WeatherFeedClient weatherFeedClient,
+                            LatestWeatherDataCache latestWeatherDataCache, WeatherScheduleProperties scheduleProperties,
+                            @Value("${weather.data.cron.expression:0 15 * * * *}") String cronExpression) {
+        this.scheduledService = scheduledService;
+        this.weatherFeedClient = weatherFeedClient;
+        this.latestWeatherDataCache = latestWeatherDataCache;
+        this.scheduleProperties = scheduleProperties;
+        this.cronExpression = cronExpression;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        if (DISABLED.equals(cronExpression)) {
+            return;
+        }
+        if (scheduleProperties.adaptive()) {
+            taskRegistrar.addTriggerTask(scheduledService::getWeatherDataFromAPI, new AdaptiveIngestionTrigger(
+                    scheduleProperties, latestWeatherDataCache::getLatestObservationTimestamp, weatherFeedClient::isStale));
+        } else {
+            taskRegistrar.addCronTask(scheduledService::getWeatherDataFromAPI, cronExpression);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.artjomkuznetsov.deliveryfee.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Settings of the requests to the weather API.
+ * @param url The URL of the observations feed.
+ * @param connectTimeout The timeout for establishing a connection.
+ * @param readTimeout The timeout for receiving the response headers and, separately, for reading the body.
+ * @param maxAttempts The maximum number of attempts of one fetch, including the first one.
+ * @param initialBackoff The upper bound of the delay before the first retry. It doubles with every further retry.
+ * @param maxBackoff The upper bound of the delay before any retry.
+ * @param retryWindow The time after the start of a fetch in which retries may be started.
+ * @param failureThreshold The number of consecutive failed attempts after which the API is not requested anymore.
+ * @param openDuration How long the API is not requested after the failure threshold has been reached.
+ */
+@ConfigurationProperties("weather.data.api")
+public record WeatherApiProperties(
+        @DefaultValue("https://www.ilmateenistus.ee/ilma_andmed/xml/observations.php") URI url,
+        @DefaultValue("5s") Duration connectTimeout,
+        @DefaultValue("20s") Duration readTimeout,
+        @DefaultValue("4") int maxAttempts,
+        @DefaultValue("2s") Duration initialBackoff,
+        @DefaultValue("1m") Duration maxBackoff,
+        @DefaultValue("10m") Duration retryWindow,
+        @DefaultValue("5") int failureThreshold,
+        @DefaultValue("30m") Duration openDuration) {
+}
@@ -0,0 +1,26 @@
+package com.artjomkuznetsov.deliveryfee.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Settings of the adaptive schedule of the weather data ingestion.
+ * @param adaptive Whether the ingestion follows the observations of the feed. If false, it runs on the
+ *                 weather.data.cron.expression instead.
+ * @param observationInterval The time between two observations of the feed.
+ * @param leadTime How long before the next observation is expected polling starts.
+ * @param pollInterval The time between polls while the next observation is due but hasn't arrived yet.
+ * @param retryDelay The time until the next poll after a failed fetch.
+ * @param maxDelay The longest time between two polls.
+ */
+@ConfigurationProperties("weather.data.schedule")
+public record WeatherScheduleProperties(
+        @DefaultValue("true") boolean adaptive,
+        @DefaultValue("1h") Duration observationInterval,
+        @DefaultValue("2m") Duration leadTime,
+        @DefaultValue("1m") Duration pollInterval,
+        @DefaultValue("30s") Duration retryDelay,
+        @DefaultValue("1h") Duration maxDelay) {
+}
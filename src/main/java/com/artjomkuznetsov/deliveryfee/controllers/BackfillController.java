@@ -0,0 +1,53 @@
+package com.artjomkuznetsov.deliveryfee.controllers;
+
+import com.artjomkuznetsov.deliveryfee.controllers.responses.BackfillStatus;
+import com.artjomkuznetsov.deliveryfee.exceptions.BackfillRunningException;
+import com.artjomkuznetsov.deliveryfee.services.BackfillService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/weather-data/backfill")
+public class BackfillController {
+    private final BackfillService backfillService;
+
+    public BackfillController(BackfillService backfillService) {
+        this.backfillService = backfillService;
+    }
+
+    /**
+     * Start importing the archived observations of the configured backfill directory.
+     * The import runs in the background, its progress can be followed with the GET operation.
+     * @return The status of the started backfill.
+     * @throws BackfillRunningException if a backfill is already running.
+     */
+    @Tag(name = "backfill-controller-post")
+    @Operation(summary = "Start a backfill of archived weather observations.",
+            description = "Imports the XML and CSV files of the configured backfill directory in the background.",
+            responses = {
+                    @ApiResponse(responseCode = "202", description = "Started.", useReturnTypeSchema = true),
+                    @ApiResponse(responseCode = "409", description = "A backfill is already running.", content = @Content)
+            })
+    @PostMapping
+    public ResponseEntity<BackfillStatus> start() {
+        return ResponseEntity.accepted().body(backfillService.start());
+    }
+
+    /**
+     * Retrieve the progress and throughput of the running or last backfill.
+     * @return The status of the backfill.
+     */
+    @Tag(name = "backfill-controller-get")
+    @Operation(summary = "Retrieve the progress of the running or last backfill.")
+    @GetMapping
+    public BackfillStatus status() {
+        return backfillService.getStatus();
+    }
+}
@@ -0,0 +1,132 @@
+package com.artjomkuznetsov.deliveryfee.controllers;
+
+import com.artjomkuznetsov.deliveryfee.exceptions.CityStationNotFoundException;
+import com.artjomkuznetsov.deliveryfee.models.CityStation;
+import com.artjomkuznetsov.deliveryfee.services.CityStationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/cities")
+public class CityStationController {
+    private final CityStationService cityStationService;
+
+    public CityStationController(CityStationService cityStationService) {
+        this.cityStationService = cityStationService;
+    }
+
+    /**
+     * Retrieve all registered cities with the weather stations their fees are based on.
+     * @return A CollectionModel containing EntityModel instances of all CityStation entities.
+     */
+    @Tag(name = "city-station-controller-get")
+    @Operation(summary = "Retrieve all registered cities.",
+            description = "The response is all the cities with their weather stations and links to the corresponding operations.")
+    @GetMapping
+    public CollectionModel<EntityModel<CityStation>> all() {
+        return cityStationService.getAllCities();
+    }
+
+    /**
+     * Retrieve the weather station of the specified city.
+     * @param city Path variable - the name of the city.
+     * @return An EntityModel representing the CityStation entity for the specified city.
+     * @throws CityStationNotFoundException if the city is not registered.
+     */
+    @Tag(name = "city-station-controller-get")
+    @Operation(summary = "Retrieve the weather station of the specified city.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ok.", useReturnTypeSchema = true),
+                    @ApiResponse(responseCode = "404", description = "The city is not registered.", content = @Content)
+            })
+    @GetMapping("/{city}")
+    public EntityModel<CityStation> oneByCity(@Parameter(description = "The name of the city.", required = true)
+                                              @PathVariable String city) {
+        return cityStationService.getOneByCity(city);
+    }
+
+    /**
+     * Register a new city with the weather station its fees are based on. A regional base fee has to be created
+     * for the city as well before fees can be calculated for it.
+     * @param cityStation Request body - the city and its station.
+     * @return The registered city with links to the corresponding operations.
+     */
+    @Tag(name = "city-station-controller-post")
+    @Operation(summary = "Register a new city.",
+            description = "The city can be used for fee calculations right away, its station is ingested from the next run on." +
+                    " A regional base fee has to be created for the city as well.",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Created.", useReturnTypeSchema = true),
+                    @ApiResponse(responseCode = "400", description = "The city or station is missing or the city is already registered.",
+                            content = @Content)
+            })
+    @PostMapping
+    public ResponseEntity<EntityModel<CityStation>> createCity(@io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "The city and its station.",
+            content = {@Content(schema = @Schema(example = """
+                    {
+                        "city": "string",
+                        "station": "string"
+                    }
+                    """))}
+            ) @RequestBody CityStation cityStation) {
+        EntityModel<CityStation> created = cityStationService.createCity(cityStation);
+        return ResponseEntity.created(created.getRequiredLink(IanaLinkRelations.SELF).toUri()).body(created);
+    }
+
+    /**
+     * Update the weather station of the specified city.
+     * @param fieldsToUpdate Request body - fields to update and their new values.
+     * @param city Path variable - the name of the city.
+     * @return The updated city with links to the corresponding operations.
+     * @throws CityStationNotFoundException if the city is not registered.
+     */
+    @Tag(name = "city-station-controller-put")
+    @Operation(summary = "Update the weather station of the specified city.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ok.", useReturnTypeSchema = true),
+                    @ApiResponse(responseCode = "404", description = "The city is not registered.", content = @Content)
+            })
+    @PutMapping("/{city}")
+    public EntityModel<CityStation> updateCity(@io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Fields to update and their new values.",
+            content = {@Content(schema = @Schema(example = """
+                    {
+                        "station": "string"
+                    }
+                    """))}
+            ) @RequestBody Map<String, Object> fieldsToUpdate,
+            @Parameter(description = "The name of the city.", required = true)
+            @PathVariable String city) {
+        return cityStationService.updateCity(fieldsToUpdate, city);
+    }
+
+    /**
+     * Remove the specified city from the registry.
+     * @param city Path variable - the name of the city.
+     * @throws CityStationNotFoundException if the city is not registered.
+     */
+    @Tag(name = "city-station-controller-delete")
+    @Operation(summary = "Remove the specified city from the registry.",
+            responses = {
+                    @ApiResponse(responseCode = "204", description = "Removed."),
+                    @ApiResponse(responseCode = "404", description = "The city is not registered.", content = @Content)
+            })
+    @DeleteMapping("/{city}")
+    public ResponseEntity<Void> deleteCity(@Parameter(description = "The name of the city.", required = true)
+                                           @PathVariable String city) {
+        cityStationService.deleteCity(city);
+        return ResponseEntity.noContent().build();
+    }
+}
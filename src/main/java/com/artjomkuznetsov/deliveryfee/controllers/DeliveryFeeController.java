@@ -1,11 +1,16 @@
 package com.artjomkuznetsov.deliveryfee.controllers;
 
 
+import com.artjomkuznetsov.deliveryfee.assemblers.FeeModelAssembler;
+import com.artjomkuznetsov.deliveryfee.controllers.requests.FeeQuoteRequest;
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeQuoteResult;
+import com.artjomkuznetsov.deliveryfee.exceptions.BadRequestBodyException;
 import com.artjomkuznetsov.deliveryfee.exceptions.ExtraWeatherConditionsNotFoundException;
 import com.artjomkuznetsov.deliveryfee.exceptions.RegionalBaseFeeNotFoundException;
 import com.artjomkuznetsov.deliveryfee.exceptions.VehicleForbiddenException;
 import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeResponse;
 import com.artjomkuznetsov.deliveryfee.services.CalculationService;
+import com.artjomkuznetsov.deliveryfee.services.FeeStreamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,13 +19,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.apache.coyote.BadRequestException;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.hateoas.EntityModel;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -28,9 +34,17 @@ import java.util.Optional;
 public class DeliveryFeeController {
 
     private final CalculationService calculationService;
+    private final FeeModelAssembler assembler;
+    private final FeeStreamService feeStreamService;
+    private final int maxBatchSize;
 
-    public DeliveryFeeController(CalculationService calculationService) {
+    public DeliveryFeeController(CalculationService calculationService, FeeModelAssembler assembler,
+                                 FeeStreamService feeStreamService,
+                                 @Value("${fee.batch.max-size:1000}") int maxBatchSize) {
         this.calculationService = calculationService;
+        this.assembler = assembler;
+        this.feeStreamService = feeStreamService;
+        this.maxBatchSize = maxBatchSize;
     }
 
     /**
@@ -80,6 +94,142 @@ public class DeliveryFeeController {
             @Parameter(description = "Specifies the date and time for which weather data should be obtained")
                 @RequestParam(required = false) Optional<LocalDateTime> dateTime)
             throws BadRequestException, VehicleForbiddenException {
+        return assembler.toModel(calculationService.calculateFee(city, vehicle, dateTime), city, vehicle, dateTime);
+    }
+
+    /**
+     * Calculate fee based on specified city and vehicle without any links. Selected by the lean=true query parameter.
+     * @param city Query parameter - city for which the weather needs to be checked.
+     * @param vehicle Query parameter - transport for which the fee needs to be calculated.
+     * @param dateTime Optional query parameter - if present, specifies the date and time for which weather data should be obtained,
+     *                otherwise the latest weather data is taken.
+     * @return Calculated fee based on specified parameters or the error message.
+     * @throws BadRequestException if parameters were specified improperly.
+     * @throws VehicleForbiddenException if weather conditions are forbidden for the specified transport.
+     * @throws ExtraWeatherConditionsNotFoundException if one of weather conditions are not found.
+     * @throws RegionalBaseFeeNotFoundException if no RegionalBaseFee is found for the specified city.
+     */
+    @Tag(name = "delivery-fee-controller-get")
+    @Operation(summary = "Calculate fee without links",
+            description = "Same as the fee calculation, but returns only the calculated fee. " +
+                    "Selected by the lean=true query parameter or by the " + FeeResponse.LEAN_MEDIA_TYPE + " media type.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Ok.", content = {@Content(mediaType = "application/json",
+                    schema = @Schema(example = """
+                    {
+                        "deliveryFee": 0
+                    }
+                    """))}),
+            @ApiResponse(responseCode = "400", description = "Parameters are specified improperly.",
+                content = @Content),
+            @ApiResponse(responseCode = "403", description = "Weather conditions are forbidden for the specified transport.",
+                content = @Content),
+            @ApiResponse(responseCode = "404", description = "Regional base fee for the specified city is not found.",
+                content = @Content),
+            @ApiResponse(responseCode = "500", description = "Extra fees for one of weather conditions haven't been configured. The database may not be configured correctly.",
+                content = @Content)
+    })
+    @GetMapping(params = "lean=true")
+    public FeeResponse getLeanFee(
+            @Parameter(description = "City for which the weather needs to be checked.", required = true)
+                @RequestParam Optional<String> city,
+            @Parameter(description = "Transport for which the fee needs to be calculated.", required = true)
+                @RequestParam Optional<String> vehicle,
+            @Parameter(description = "Specifies the date and time for which weather data should be obtained")
+                @RequestParam(required = false) Optional<LocalDateTime> dateTime)
+            throws BadRequestException, VehicleForbiddenException {
         return calculationService.calculateFee(city, vehicle, dateTime);
     }
+
+    /**
+     * Calculate fee without any links when the client accepts the lean media type.
+     * @see #getLeanFee(Optional, Optional, Optional)
+     */
+    @Operation(hidden = true)
+    @GetMapping(produces = FeeResponse.LEAN_MEDIA_TYPE)
+    public FeeResponse getLeanFeeByMediaType(@RequestParam Optional<String> city, @RequestParam Optional<String> vehicle,
+                                             @RequestParam(required = false) Optional<LocalDateTime> dateTime)
+            throws BadRequestException, VehicleForbiddenException {
+        return calculationService.calculateFee(city, vehicle, dateTime);
+    }
+
+    /**
+     * Calculate fees for many city, vehicle and optional dateTime combinations at once.
+     * Every item gets its own result, so one invalid item doesn't fail the whole batch.
+     * @param requests Request body - the items to calculate fees for.
+     * @return One result per item in the same order, containing either the calculated fee or the error message.
+     * @throws BadRequestBodyException if the batch contains more items than allowed.
+     */
+    @Tag(name = "delivery-fee-controller-post")
+    @Operation(summary = "Calculate fees in batch",
+            description = "Calculate fees for many city, vehicle and optional dateTime combinations at once. " +
+                    "Returns one result per item in the same order, containing either the calculated fee or the error message.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Ok.", content = {@Content(mediaType = "application/json",
+                    schema = @Schema(example = """
+                    [
+                        {
+                            "city": "string",
+                            "vehicle": "string",
+                            "status": "OK",
+                            "deliveryFee": 0
+                        },
+                        {
+                            "city": "string",
+                            "vehicle": "string",
+                            "dateTime": "2024-03-17T15:17:40",
+                            "status": "FORBIDDEN",
+                            "error": "string"
+                        }
+                    ]
+                    """))}),
+            @ApiResponse(responseCode = "400", description = "The batch contains more items than allowed.",
+                content = @Content)
+    })
+    @PostMapping("/batch")
+    public List<FeeQuoteResult> getFees(@io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "Items to calculate fees for. The dateTime field is optional.",
+            content = {@Content(schema = @Schema(example = """
+                    [
+                        {
+                            "city": "string",
+                            "vehicle": "string",
+                            "dateTime": "2024-03-17T15:17:40"
+                        }
+                    ]
+                    """))}
+    ) @RequestBody List<FeeQuoteRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new BadRequestBodyException("A batch can contain at most " + maxBatchSize + " items.");
+        }
+        return calculationService.calculateFees(requests);
+    }
+
+    /**
+     * Subscribe to the fees based on the latest weather data. The current fees are sent first, afterwards only the fees
+     * that have changed because of new weather data or changed fee rules or cities.
+     * @param city Optional query parameter - the city whose fees are sent, all cities if not specified.
+     * @param vehicle Optional query parameter - the transport whose fees are sent, all transports if not specified.
+     * @return The stream of server-sent events. Every "fees" event contains a JSON array of changed fees.
+     */
+    @Tag(name = "delivery-fee-controller-get")
+    @Operation(summary = "Stream fee changes",
+            description = "Server-sent event stream of the fees based on the latest weather data. The current fees are sent first, " +
+                    "afterwards only the fees that have changed. Every \"fees\" event contains a JSON array of changed fees. " +
+                    "The stream is closed after a timeout and should be reconnected.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Ok.", content = {@Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                    schema = @Schema(example = """
+                    event:fees
+                    data:[{"city":"tallinn","vehicle":"car","status":"OK","deliveryFee":4.0},{"city":"tartu","vehicle":"bike","status":"FORBIDDEN"}]
+                    """))})
+    })
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamFees(
+            @Parameter(description = "City whose fees are sent, all cities if not specified.")
+                @RequestParam(required = false) Optional<String> city,
+            @Parameter(description = "Transport whose fees are sent, all transports if not specified.")
+                @RequestParam(required = false) Optional<String> vehicle) {
+        return feeStreamService.subscribe(city, vehicle);
+    }
 }
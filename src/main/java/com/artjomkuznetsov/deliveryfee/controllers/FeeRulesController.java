@@ -0,0 +1,60 @@
+package com.artjomkuznetsov.deliveryfee.controllers;
+
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeRulesDocument;
+import com.artjomkuznetsov.deliveryfee.exceptions.BadRequestBodyException;
+import com.artjomkuznetsov.deliveryfee.services.FeeRulesService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/fee-rules")
+public class FeeRulesController {
+    private final FeeRulesService feeRulesService;
+
+    public FeeRulesController(FeeRulesService feeRulesService) {
+        this.feeRulesService = feeRulesService;
+    }
+
+    /**
+     * Export all regional base fees and extra weather conditions as one document.
+     * @return The current fee rules.
+     */
+    @Tag(name = "fee-rules-controller-get")
+    @Operation(summary = "Export all fee rules.",
+            description = "The response contains the regional base fees of all cities and the extra weather conditions.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Ok.", useReturnTypeSchema = true),
+                    @ApiResponse(responseCode = "404", description = "Extra weather conditions are not found.", content = @Content)
+            })
+    @GetMapping
+    public FeeRulesDocument exportRules() {
+        return feeRulesService.exportRules();
+    }
+
+    /**
+     * Replace all fee rules by the rules of an exported document in a single transaction.
+     * Base fees of cities that are not listed in the document are deleted.
+     * @param document The fee rules to import.
+     * @return The imported fee rules.
+     * @throws BadRequestBodyException if the document is invalid. Nothing is changed in that case.
+     */
+    @Tag(name = "fee-rules-controller-put")
+    @Operation(summary = "Import all fee rules.",
+            description = "Replaces the regional base fees and extra weather conditions by the rules of the document at once.",
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Imported.", useReturnTypeSchema = true),
+                    @ApiResponse(responseCode = "400", description = "The document is invalid, nothing has been changed.",
+                            content = @Content)
+            })
+    @PutMapping
+    public FeeRulesDocument importRules(@RequestBody FeeRulesDocument document) {
+        return feeRulesService.importRules(document);
+    }
+}
@@ -11,6 +11,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -106,6 +108,37 @@ public class RegionalBaseFeeController {
         return baseFeeService.getOneByCity(city);
     }
 
+    /**
+     * Create the regional base fee for a city that has no base fee yet.
+     * The response is the created regional base fee with links to the corresponding operations.
+     * @param baseFee Request body - the city and its fees.
+     * @return The created RegionalBaseFee with links to the corresponding operations.
+     */
+    @Tag(name = "regional-base-fee-controller-post")
+    @Operation(summary = "Create regional base fee.",
+            description = "Create the regional base fee for a city that has no base fee yet." +
+                    " The response is the created regional base fee with links to the corresponding operations.",
+            responses = {
+                    @ApiResponse(responseCode = "201", description = "Created.", useReturnTypeSchema = true),
+                    @ApiResponse(responseCode = "400", description = "The city is missing, a fee is negative or the city already has a base fee.",
+                            content = @Content)
+            })
+    @PostMapping
+    public ResponseEntity<EntityModel<RegionalBaseFee>> createBaseFee(@io.swagger.v3.oas.annotations.parameters.RequestBody(
+            description = "The city and its fees.",
+            content = {@Content(schema = @Schema(example = """
+                    {
+                        "city": "string",
+                        "carFee": 0,
+                        "bikeFee": 0,
+                        "scooterFee": 0
+                    }
+                    """))}
+            ) @RequestBody RegionalBaseFee baseFee) {
+        EntityModel<RegionalBaseFee> created = baseFeeService.createBaseFee(baseFee);
+        return ResponseEntity.created(created.getRequiredLink(IanaLinkRelations.SELF).toUri()).body(created);
+    }
+
     /**
      * Update the existing regional base fee for the specified city by specifying the fields to update and their new values in the request body.
      * The response is updated regional base fee with links to the corresponding operations.
@@ -0,0 +1,11 @@
+package com.artjomkuznetsov.deliveryfee.controllers.requests;
+
+import java.time.LocalDateTime;
+
+/**
+ * One item of a batch fee request.
+ * @param city The city for which the weather needs to be checked.
+ * @param vehicle The transport for which the fee needs to be calculated.
+ * @param dateTime Optional date and time for which weather data should be obtained, null for the latest weather data.
+ */
+public record FeeQuoteRequest(String city, String vehicle, LocalDateTime dateTime) {}
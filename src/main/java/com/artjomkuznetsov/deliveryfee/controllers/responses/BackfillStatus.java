@@ -0,0 +1,29 @@
+package com.artjomkuznetsov.deliveryfee.controllers.responses;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+/**
+ * Progress of a backfill of archived weather observations.
+ * @param state The state of the backfill.
+ * @param directory The directory the archives are read from.
+ * @param files The number of archive files found.
+ * @param filesParsed The number of files parsed so far.
+ * @param filesFailed The number of files that couldn't be read and were skipped.
+ * @param observationsParsed The number of observations of registered stations read so far.
+ * @param observationsWritten The number of observations written to the database so far.
+ * @param startedAt When the backfill was started.
+ * @param finishedAt When the backfill has finished or null if it is still running.
+ * @param observationsPerSecond The written observations per second of running time.
+ * @param error The reason of a failed backfill.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BackfillStatus(State state, String directory, int files, int filesParsed, int filesFailed,
+                             long observationsParsed, long observationsWritten, Instant startedAt, Instant finishedAt,
+                             double observationsPerSecond, String error) {
+
+    public enum State {
+        NOT_STARTED, RUNNING, COMPLETED, FAILED
+    }
+}
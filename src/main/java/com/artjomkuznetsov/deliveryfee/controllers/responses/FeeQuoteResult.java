@@ -0,0 +1,25 @@
+package com.artjomkuznetsov.deliveryfee.controllers.responses;
+
+import com.artjomkuznetsov.deliveryfee.controllers.requests.FeeQuoteRequest;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+/**
+ * Result of one item of a batch fee request. Either the delivery fee or the error is present.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record FeeQuoteResult(String city, String vehicle, LocalDateTime dateTime, Status status, Float deliveryFee, String error) {
+
+    public enum Status {
+        OK, FORBIDDEN, BAD_REQUEST, NOT_FOUND, ERROR
+    }
+
+    public static FeeQuoteResult ok(FeeQuoteRequest request, float deliveryFee) {
+        return new FeeQuoteResult(request.city(), request.vehicle(), request.dateTime(), Status.OK, deliveryFee, null);
+    }
+
+    public static FeeQuoteResult failed(FeeQuoteRequest request, Status status, String error) {
+        return new FeeQuoteResult(request.city(), request.vehicle(), request.dateTime(), status, null, error);
+    }
+}
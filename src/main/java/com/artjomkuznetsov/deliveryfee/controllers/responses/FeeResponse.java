@@ -1,4 +1,8 @@
 package com.artjomkuznetsov.deliveryfee.controllers.responses;
 
 public record FeeResponse(float deliveryFee) {
+    /**
+     * Media type of the representation without links.
+     */
+    public static final String LEAN_MEDIA_TYPE = "application/vnd.delivery-fee.lean+json";
 }
@@ -0,0 +1,26 @@
+package com.artjomkuznetsov.deliveryfee.controllers.responses;
+
+import com.artjomkuznetsov.deliveryfee.models.RegionalBaseFee;
+import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.AirTemperatureConditions;
+import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WeatherPhenomenonConditions;
+import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WindSpeedConditions;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * All fee rules in one document, as exported and imported by the fee rules endpoints.
+ * The ids of the rules are only informational, rules are matched by the city of the base fee on import.
+ * @param version The version of the document format, {@link #VERSION}.
+ * @param exportedAt When the document was exported. It is ignored on import.
+ * @param baseFees The regional base fees of all cities.
+ * @param airTemperatureConditions The air temperature conditions.
+ * @param windSpeedConditions The wind speed conditions.
+ * @param phenomenonConditions The weather phenomenon conditions.
+ */
+public record FeeRulesDocument(int version, Instant exportedAt, List<RegionalBaseFee> baseFees,
+                               AirTemperatureConditions airTemperatureConditions,
+                               WindSpeedConditions windSpeedConditions,
+                               WeatherPhenomenonConditions phenomenonConditions) {
+    public static final int VERSION = 1;
+}
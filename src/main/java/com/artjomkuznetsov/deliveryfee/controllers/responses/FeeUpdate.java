@@ -0,0 +1,13 @@
+package com.artjomkuznetsov.deliveryfee.controllers.responses;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The current fee of one city and vehicle, sent by the fee stream when it has changed.
+ * The delivery fee is only present if the status is {@link FeeQuoteResult.Status#OK}. The status is
+ * {@link FeeQuoteResult.Status#NOT_FOUND} if the city has been removed from the registry and
+ * {@link FeeQuoteResult.Status#ERROR} if the fee can't be calculated.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record FeeUpdate(String city, String vehicle, FeeQuoteResult.Status status, Float deliveryFee) {
+}
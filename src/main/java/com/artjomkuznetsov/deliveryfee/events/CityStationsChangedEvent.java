@@ -0,0 +1,6 @@
+package com.artjomkuznetsov.deliveryfee.events;
+
+/**
+ * Published after a city has been added to or removed from the station registry, or assigned another station.
+ */
+public record CityStationsChangedEvent() {}
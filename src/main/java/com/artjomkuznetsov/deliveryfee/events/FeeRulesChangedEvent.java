@@ -0,0 +1,7 @@
+package com.artjomkuznetsov.deliveryfee.events;
+
+/**
+ * Published after a regional base fee or an extra weather fee rule has been changed.
+ * Listeners use it to drop everything they have derived from the previous rules.
+ */
+public record FeeRulesChangedEvent() {}
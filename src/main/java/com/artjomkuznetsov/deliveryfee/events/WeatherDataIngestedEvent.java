@@ -0,0 +1,7 @@
+package com.artjomkuznetsov.deliveryfee.events;
+
+/**
+ * Published after new weather observations have been saved and published as the latest weather data.
+ * @param observations The number of observations saved.
+ */
+public record WeatherDataIngestedEvent(int observations) {}
@@ -0,0 +1,7 @@
+package com.artjomkuznetsov.deliveryfee.exceptions;
+
+public class BackfillRunningException extends RuntimeException {
+    public BackfillRunningException() {
+        super("A backfill is already running.");
+    }
+}
@@ -0,0 +1,7 @@
+package com.artjomkuznetsov.deliveryfee.exceptions;
+
+public class CityStationNotFoundException extends RuntimeException {
+    public CityStationNotFoundException(String city) {
+        super("City " + city + " is not registered.");
+    }
+}
@@ -0,0 +1,11 @@
+package com.artjomkuznetsov.deliveryfee.exceptions;
+
+public class WeatherFeedException extends RuntimeException {
+    public WeatherFeedException(String message) {
+        super(message);
+    }
+
+    public WeatherFeedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,85 @@
+package com.artjomkuznetsov.deliveryfee.metrics;
+
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeQuoteResult;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the fee calculation. Timers are created once per combination of tags and reused afterwards.
+ */
+@Component
+public class FeeMetrics {
+    /**
+     * Tag value for a city or vehicle that is not known, so that invalid input can't create new time series.
+     */
+    public static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry registry;
+    private final ConcurrentMap<CalculationTags, Timer> calculationTimers = new ConcurrentHashMap<>();
+    private final Timer weatherLookupFound;
+    private final Timer weatherLookupMissing;
+
+    public FeeMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.weatherLookupFound = weatherLookupTimer("found");
+        this.weatherLookupMissing = weatherLookupTimer("missing");
+    }
+
+    /**
+     * Records one fee calculation.
+     * @param city The city in lower case or {@link #UNKNOWN}.
+     * @param vehicle The vehicle type in lower case or {@link #UNKNOWN}.
+     * @param historical Whether the calculation was based on historical weather data.
+     * @param outcome The outcome of the calculation.
+     * @param durationNanos The duration of the calculation in nanoseconds.
+     */
+    public void recordCalculation(String city, String vehicle, boolean historical, FeeQuoteResult.Status outcome,
+                                  long durationNanos) {
+        calculationTimers.computeIfAbsent(new CalculationTags(city, vehicle, historical, outcome), this::calculationTimer)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records one lookup of historical weather data.
+     * @param found Whether weather data was found for the requested time.
+     * @param durationNanos The duration of the lookup in nanoseconds.
+     */
+    public void recordWeatherLookup(boolean found, long durationNanos) {
+        (found ? weatherLookupFound : weatherLookupMissing).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Registers a gauge of the number of subscribers of the fee stream.
+     */
+    public void registerStreamSubscribers(Collection<?> subscribers) {
+        Gauge.builder("fee.stream.subscribers", subscribers, Collection::size)
+                .description("Subscribers of the fee stream")
+                .register(registry);
+    }
+
+    private Timer calculationTimer(CalculationTags tags) {
+        return Timer.builder("fee.calculation")
+                .description("Delivery fee calculations")
+                .tag("city", tags.city())
+                .tag("vehicle", tags.vehicle())
+                .tag("path", tags.historical() ? "historical" : "current")
+                .tag("outcome", tags.outcome().name().toLowerCase())
+                .register(registry);
+    }
+
+    private Timer weatherLookupTimer(String outcome) {
+        return Timer.builder("fee.weather.lookup")
+                .description("Lookups of historical weather data")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private record CalculationTags(String city, String vehicle, boolean historical, FeeQuoteResult.Status outcome) {}
+}
@@ -0,0 +1,64 @@
+package com.artjomkuznetsov.deliveryfee.metrics;
+
+import com.artjomkuznetsov.deliveryfee.services.WeatherFeedClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the requests to the weather API.
+ */
+@Component
+public class WeatherFeedMetrics {
+    public enum Outcome {
+        CHANGED,
+        UNCHANGED,
+        ERROR
+    }
+
+    private final MeterRegistry registry;
+    private final Timer[] fetchTimers = new Timer[Outcome.values().length];
+    private final Counter retries;
+
+    public WeatherFeedMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Outcome outcome : Outcome.values()) {
+            fetchTimers[outcome.ordinal()] = Timer.builder("weather.feed.fetch")
+                    .description("Fetches of the weather feed including their retries")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(registry);
+        }
+        this.retries = Counter.builder("weather.feed.retries")
+                .description("Retried requests to the weather API")
+                .register(registry);
+    }
+
+    /**
+     * Records one fetch of the feed.
+     * @param outcome The outcome of the fetch.
+     * @param durationNanos The duration of the fetch in nanoseconds.
+     */
+    public void recordFetch(Outcome outcome, long durationNanos) {
+        fetchTimers[outcome.ordinal()].record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    /**
+     * Registers gauges of the circuit breaker state (0 closed, 1 half-open, 2 open) and the staleness of the weather data.
+     */
+    public void registerState(WeatherFeedClient client) {
+        Gauge.builder("weather.feed.circuit.state", client, c -> c.getCircuitState().ordinal())
+                .description("State of the circuit breaker of the weather API: 0 closed, 1 half-open, 2 open")
+                .register(registry);
+        Gauge.builder("weather.feed.stale", client, c -> c.isStale() ? 1 : 0)
+                .description("Whether the last fetch of the weather feed failed")
+                .register(registry);
+    }
+}
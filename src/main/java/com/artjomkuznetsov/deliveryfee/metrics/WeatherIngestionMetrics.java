@@ -0,0 +1,113 @@
+package com.artjomkuznetsov.deliveryfee.metrics;
+
+import com.artjomkuznetsov.deliveryfee.cache.LatestWeatherDataCache;
+import com.artjomkuznetsov.deliveryfee.models.WeatherData;
+import com.artjomkuznetsov.deliveryfee.services.LeaderElectionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of the weather data ingestion.
+ */
+@Component
+public class WeatherIngestionMetrics {
+    private final MeterRegistry registry;
+    private final Timer succeeded;
+    private final Timer failed;
+    private final Counter observations;
+    private final Counter unchanged;
+    private final Counter skipped;
+    private final MultiGauge freshnessLag;
+    private Set<String> freshnessStations = Set.of();
+
+    public WeatherIngestionMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.succeeded = ingestionTimer(registry, "ok");
+        this.failed = ingestionTimer(registry, "error");
+        this.observations = Counter.builder("weather.ingestion.observations")
+                .description("Weather observations saved by the ingestion")
+                .register(registry);
+        this.unchanged = Counter.builder("weather.ingestion.unchanged")
+                .description("Runs of the weather data ingestion that found the feed unchanged")
+                .register(registry);
+        this.skipped = Counter.builder("weather.ingestion.skipped")
+                .description("Runs of the weather data ingestion skipped because another instance is the leader")
+                .register(registry);
+        this.freshnessLag = MultiGauge.builder("weather.data.freshness.lag")
+                .description("Age of the latest weather observation of a station")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /**
+     * Records one run of the ingestion.
+     * @param success Whether the weather data was fetched and parsed successfully.
+     * @param saved The number of saved observations.
+     * @param durationNanos The duration of the run in nanoseconds.
+     */
+    public void recordIngestion(boolean success, int saved, long durationNanos) {
+        (success ? succeeded : failed).record(durationNanos, TimeUnit.NANOSECONDS);
+        observations.increment(saved);
+    }
+
+    /**
+     * Records a run of the ingestion that skipped the feed because it hasn't changed.
+     */
+    public void recordUnchanged() {
+        unchanged.increment();
+    }
+
+    /**
+     * Records a run of the ingestion that was left to the leader.
+     */
+    public void recordSkipped() {
+        skipped.increment();
+    }
+
+    /**
+     * Registers a gauge of whether this instance is the leader running the scheduled jobs.
+     */
+    public void registerLeadership(LeaderElectionService leaderElection) {
+        Gauge.builder("scheduler.leader", leaderElection, l -> l.isLeader() ? 1 : 0)
+                .description("Whether this instance holds the scheduler lease")
+                .register(registry);
+    }
+
+    /**
+     * Registers a gauge of the age of the latest observation for every station, replacing the gauges of removed stations.
+     * The age is calculated from the weather data in memory when the gauge is read.
+     * @param stations The names of the stations in the registry.
+     * @param cache The latest weather data.
+     */
+    public synchronized void registerFreshness(Collection<String> stations, LatestWeatherDataCache cache) {
+        if (freshnessStations.equals(Set.copyOf(stations))) {
+            return;
+        }
+        freshnessStations = Set.copyOf(stations);
+        freshnessLag.register(freshnessStations.stream()
+                .<MultiGauge.Row<?>>map(station -> MultiGauge.Row.of(Tags.of("station", station), cache,
+                        c -> ageSeconds(c.getIfPresent(station))))
+                .toList(), true);
+    }
+
+    private static double ageSeconds(WeatherData weatherData) {
+        return weatherData == null ? Double.NaN
+                : System.currentTimeMillis() / 1000.0 - weatherData.getObservationTimestamp();
+    }
+
+    private static Timer ingestionTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("weather.ingestion")
+                .description("Runs of the weather data ingestion")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+}
@@ -0,0 +1,78 @@
+package com.artjomkuznetsov.deliveryfee.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Meters of the weather data retention and of the size of the weather data tables.
+ * The sizes are only counted by the retention job and every {@code weather.data.retention.row-count-interval},
+ * so that neither scrapes nor ingestions query the database for them.
+ */
+@Component
+public class WeatherRetentionMetrics {
+    private final Timer succeeded;
+    private final Timer failed;
+    private final Counter observationsDeleted;
+    private final Counter rollupsDeleted;
+    private final AtomicLong observationRows = new AtomicLong();
+    private final AtomicLong rollupRows = new AtomicLong();
+
+    public WeatherRetentionMetrics(MeterRegistry registry) {
+        this.succeeded = retentionTimer(registry, "ok");
+        this.failed = retentionTimer(registry, "error");
+        this.observationsDeleted = deletedCounter(registry, "weather_data");
+        this.rollupsDeleted = deletedCounter(registry, "weather_data_rollup");
+        rowsGauge(registry, "weather_data", observationRows);
+        rowsGauge(registry, "weather_data_rollup", rollupRows);
+    }
+
+    /**
+     * Records one run of the retention job.
+     * @param success Whether all expired weather data was rolled up and deleted.
+     * @param observations The number of deleted observations.
+     * @param rollups The number of deleted rollups.
+     * @param durationNanos The duration of the run in nanoseconds.
+     */
+    public void recordRetention(boolean success, int observations, int rollups, long durationNanos) {
+        (success ? succeeded : failed).record(durationNanos, TimeUnit.NANOSECONDS);
+        observationsDeleted.increment(observations);
+        rollupsDeleted.increment(rollups);
+    }
+
+    /**
+     * Updates the gauges of the table sizes.
+     * @param observations The number of rows in weather_data.
+     * @param rollups The number of rows in weather_data_rollup.
+     */
+    public void recordRows(long observations, long rollups) {
+        observationRows.set(observations);
+        rollupRows.set(rollups);
+    }
+
+    private static Timer retentionTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("weather.retention")
+                .description("Runs of the weather data retention")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private static Counter deletedCounter(MeterRegistry registry, String table) {
+        return Counter.builder("weather.retention.deleted")
+                .description("Rows deleted by the weather data retention")
+                .tag("table", table)
+                .register(registry);
+    }
+
+    private static void rowsGauge(MeterRegistry registry, String table, AtomicLong rows) {
+        Gauge.builder("weather.data.rows", rows, AtomicLong::get)
+                .description("Rows in the weather data tables")
+                .tag("table", table)
+                .register(registry);
+    }
+}
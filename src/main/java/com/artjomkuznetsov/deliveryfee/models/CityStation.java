@@ -0,0 +1,61 @@
+package com.artjomkuznetsov.deliveryfee.models;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Assigns the weather station whose observations are used for the fees of a city.
+ */
+@Entity
+@Table(name = "city_station",
+        uniqueConstraints = @UniqueConstraint(name = "uk_city_station_city", columnNames = "city"))
+public class CityStation {
+    @NotNull
+    private @GeneratedValue(strategy = GenerationType.IDENTITY) @Id int id;
+
+    @NotNull
+    private String city;
+
+    @NotNull
+    private String station;
+
+    public CityStation() {}
+
+    public CityStation(String city, String station) {
+        this.city = city;
+        this.station = station;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getStation() {
+        return station;
+    }
+
+    public void setStation(String station) {
+        this.station = station;
+    }
+
+    @Override
+    public String toString() {
+        return "CityStation{" +
+                "id=" + id +
+                ", city='" + city + '\'' +
+                ", station='" + station + '\'' +
+                '}';
+    }
+}
@@ -1,5 +1,75 @@
 package com.artjomkuznetsov.deliveryfee.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonSetter;
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import jakarta.persistence.Transient;
 
+import java.util.List;
+
+/**
+ * Extra fee conditions that apply to a set of vehicle types. The vehicle types are stored as a bitmask of {@link Vehicle}s
+ * and exposed by their names.
+ */
+@MappedSuperclass
 public abstract class ExtraWeatherFee {
+    @Column(name = "vehicle_mask")
+    private int vehicleMask;
+    @Transient
+    private boolean invalidVehicleTypes;
+
+    public List<String> getVehicleTypes() {
+        return Vehicle.namesOf(getVehicleMask());
+    }
+
+    /**
+     * @throws IllegalArgumentException if one of the names is not the name of a vehicle type.
+     */
+    public void setVehicleTypes(List<String> vehicleTypes) {
+        this.vehicleMask = Vehicle.maskOf(vehicleTypes);
+    }
+
+    /**
+     * Binds the vehicle types of a request body regardless of case. Unknown names don't fail the binding,
+     * they are reported by {@link #hasInvalidVehicleTypes()} so that the body can be rejected with a useful message.
+     */
+    @JsonSetter("vehicleTypes")
+    private void bindVehicleTypes(List<String> vehicleTypes) {
+        try {
+            this.vehicleMask = Vehicle.maskOfIgnoringCase(vehicleTypes);
+            this.invalidVehicleTypes = false;
+        } catch (IllegalArgumentException | NullPointerException e) {
+            this.invalidVehicleTypes = true;
+        }
+    }
+
+    /**
+     * @return Whether the vehicle types bound from a request body contain a name that is not the name of a vehicle type.
+     */
+    public boolean hasInvalidVehicleTypes() {
+        return invalidVehicleTypes;
+    }
+
+    @JsonIgnore
+    public int getVehicleMask() {
+        return vehicleMask;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the mask contains a bit that is not the bit of a vehicle type.
+     */
+    public void setVehicleMask(int vehicleMask) {
+        if (!Vehicle.isMask(vehicleMask)) {
+            throw new IllegalArgumentException("Invalid vehicle mask: " + vehicleMask);
+        }
+        this.vehicleMask = vehicleMask;
+    }
+
+    /**
+     * @return Whether the conditions apply to the vehicle type. Unknown vehicle types (null) are never affected.
+     */
+    public boolean appliesTo(Vehicle vehicle) {
+        return vehicle != null && vehicle.isIn(vehicleMask);
+    }
 }
@@ -0,0 +1,56 @@
+package com.artjomkuznetsov.deliveryfee.models;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * All fee rules as they were in force from a point in time until the next version.
+ * The rules are stored as a fee rules document in JSON, the same format as the export of the rules.
+ */
+@Entity
+@Table(name = "fee_rule_version")
+public class FeeRuleVersion {
+    @NotNull
+    private @GeneratedValue(strategy = GenerationType.IDENTITY) @Id long id;
+
+    /**
+     * Epoch milliseconds from which the rules are in force.
+     */
+    @NotNull
+    private long effectiveFrom;
+
+    @NotNull
+    @Lob
+    private String rules;
+
+    public FeeRuleVersion() {}
+
+    public FeeRuleVersion(long effectiveFrom, String rules) {
+        this.effectiveFrom = effectiveFrom;
+        this.rules = rules;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public long getEffectiveFrom() {
+        return effectiveFrom;
+    }
+
+    public void setEffectiveFrom(long effectiveFrom) {
+        this.effectiveFrom = effectiveFrom;
+    }
+
+    public String getRules() {
+        return rules;
+    }
+
+    public void setRules(String rules) {
+        this.rules = rules;
+    }
+}
@@ -2,6 +2,7 @@ package com.artjomkuznetsov.deliveryfee.models;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 
 
 @Entity
@@ -14,12 +15,15 @@ public class RegionalBaseFee {
     private String city;
 
     @NotNull
+    @PositiveOrZero
     private float carFee;
 
     @NotNull
+    @PositiveOrZero
     private float bikeFee;
 
     @NotNull
+    @PositiveOrZero
     private float scooterFee;
 
     public RegionalBaseFee() {}
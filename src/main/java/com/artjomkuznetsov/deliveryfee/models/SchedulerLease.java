@@ -0,0 +1,58 @@
+package com.artjomkuznetsov.deliveryfee.models;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+
+/**
+ * A lease that entitles one instance of the service to run the scheduled jobs until it expires.
+ * The expiry is set from the clock of the database, so the clocks of the instances don't have to agree.
+ */
+@Entity
+@Table(name = "scheduler_lease")
+public class SchedulerLease {
+    @NotNull
+    private @Id String name;
+
+    @NotNull
+    private String owner;
+
+    @NotNull
+    private Instant expiresAt;
+
+    public SchedulerLease() {}
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public void setOwner(String owner) {
+        this.owner = owner;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String toString() {
+        return "SchedulerLease{" +
+                "name='" + name + '\'' +
+                ", owner='" + owner + '\'' +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -0,0 +1,116 @@
+package com.artjomkuznetsov.deliveryfee.models;
+
+import java.util.*;
+
+/**
+ * Vehicle types a delivery can be made with. Sets of vehicle types are stored as a bitmask of the ordinals,
+ * so new constants must be added to the end.
+ */
+public enum Vehicle {
+    CAR("car"),
+    BIKE("bike"),
+    SCOOTER("scooter");
+
+    private static final Vehicle[] VALUES = values();
+    private static final Map<String, Vehicle> BY_NAME = new HashMap<>();
+    private static final List<String> NAMES;
+    private static final int ALL;
+
+    static {
+        List<String> names = new ArrayList<>();
+        int all = 0;
+        for (Vehicle vehicle : VALUES) {
+            BY_NAME.put(vehicle.name, vehicle);
+            names.add(vehicle.name);
+            all |= vehicle.bit;
+        }
+        NAMES = List.copyOf(names);
+        ALL = all;
+    }
+
+    private final String name;
+    private final int bit;
+
+    Vehicle(String name) {
+        this.name = name;
+        this.bit = 1 << ordinal();
+    }
+
+    /**
+     * @return The name of the vehicle type in lower case, as used by the API.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param mask A bitmask of vehicle types.
+     * @return Whether this vehicle type is in the mask.
+     */
+    public boolean isIn(int mask) {
+        return (mask & bit) != 0;
+    }
+
+    /**
+     * @param name The name of a vehicle type in lower case.
+     * @return The vehicle type or null if there is none with the name.
+     */
+    public static Vehicle fromName(String name) {
+        return BY_NAME.get(name);
+    }
+
+    /**
+     * @return The names of all vehicle types in the order of their declaration.
+     */
+    public static List<String> names() {
+        return NAMES;
+    }
+
+    /**
+     * @param names The names of vehicle types in lower case.
+     * @return The bitmask of the vehicle types.
+     * @throws IllegalArgumentException if a name is not the name of a vehicle type.
+     */
+    public static int maskOf(Collection<String> names) {
+        int mask = 0;
+        for (String name : names) {
+            Vehicle vehicle = fromName(name);
+            if (vehicle == null) {
+                throw new IllegalArgumentException("Unknown vehicle type: " + name);
+            }
+            mask |= vehicle.bit;
+        }
+        return mask;
+    }
+
+    /**
+     * @param names The names of vehicle types in any case.
+     * @return The bitmask of the vehicle types.
+     * @throws IllegalArgumentException if a name is not the name of a vehicle type.
+     */
+    public static int maskOfIgnoringCase(Collection<String> names) {
+        return maskOf(names.stream().map(name -> name.toLowerCase(Locale.ROOT)).toList());
+    }
+
+    /**
+     * @param mask A bitmask.
+     * @return Whether the mask only contains the bits of vehicle types.
+     */
+    public static boolean isMask(int mask) {
+        return (mask & ~ALL) == 0;
+    }
+
+    /**
+     * @param mask A bitmask of vehicle types.
+     * @return The names of the vehicle types in the mask in the order of their declaration.
+     */
+    public static List<String> namesOf(int mask) {
+        List<String> names = new ArrayList<>(VALUES.length);
+        for (Vehicle vehicle : VALUES) {
+            if (vehicle.isIn(mask)) {
+                names.add(vehicle.name);
+            }
+        }
+        return names;
+    }
+}
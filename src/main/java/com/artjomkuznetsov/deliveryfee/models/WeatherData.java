@@ -1,10 +1,13 @@
 package com.artjomkuznetsov.deliveryfee.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 
 
-@Table(name = "weather_data")
+@Table(name = "weather_data", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_weather_data_station_observation_timestamp", columnNames = {"station", "observation_timestamp"})
+})
 @Entity
 public class WeatherData {
     @NotNull
@@ -16,6 +19,10 @@ public class WeatherData {
     private float airTemperature;
     private float windSpeed;
     private String weatherPhenomenon;
+    @JsonIgnore
+    @Enumerated(EnumType.ORDINAL)
+    @Column(name = "weather_phenomenon_code")
+    private WeatherPhenomenon weatherPhenomenonCode;
     @NotNull
     private Long observationTimestamp;
 
@@ -28,6 +35,7 @@ public class WeatherData {
         this.airTemperature = airTemperature;
         this.windSpeed = windSpeed;
         this.weatherPhenomenon = weatherPhenomenon;
+        this.weatherPhenomenonCode = WeatherPhenomenon.fromText(weatherPhenomenon);
         this.observationTimestamp = observationTimestamp;
     }
 
@@ -77,6 +85,24 @@ public class WeatherData {
 
     public void setWeatherPhenomenon(String weatherPhenomenon) {
         this.weatherPhenomenon = weatherPhenomenon;
+        this.weatherPhenomenonCode = WeatherPhenomenon.fromText(weatherPhenomenon);
+    }
+
+    /**
+     * @return The classified weather phenomenon, derived from the phenomenon text.
+     */
+    public WeatherPhenomenon getWeatherPhenomenonCode() {
+        return weatherPhenomenonCode;
+    }
+
+    /**
+     * Classifies the phenomenon of rows that were stored without a phenomenon code.
+     */
+    @PostLoad
+    private void classifyWeatherPhenomenon() {
+        if (weatherPhenomenonCode == null) {
+            weatherPhenomenonCode = WeatherPhenomenon.fromText(weatherPhenomenon);
+        }
     }
 
     public Long getObservationTimestamp() {
@@ -0,0 +1,121 @@
+package com.artjomkuznetsov.deliveryfee.models;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Daily aggregate of the observations of a station, kept after the observations themselves have been removed
+ * by the retention policy.
+ */
+@Table(name = "weather_data_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_weather_data_rollup_station_day", columnNames = {"station", "day_start"})
+})
+@Entity
+public class WeatherDataRollup {
+    @NotNull
+    private @Id @GeneratedValue(strategy = GenerationType.IDENTITY) Long id;
+    @NotNull
+    private String station;
+    /**
+     * The start of the UTC day as epoch seconds.
+     */
+    @NotNull
+    @Column(name = "day_start")
+    private Long day;
+    private int observations;
+    private float airTemperatureMin;
+    private float airTemperatureAvg;
+    private float airTemperatureMax;
+    private float windSpeedAvg;
+    private float windSpeedMax;
+
+    public WeatherDataRollup() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getStation() {
+        return station;
+    }
+
+    public void setStation(String station) {
+        this.station = station;
+    }
+
+    public Long getDay() {
+        return day;
+    }
+
+    public void setDay(Long day) {
+        this.day = day;
+    }
+
+    public int getObservations() {
+        return observations;
+    }
+
+    public void setObservations(int observations) {
+        this.observations = observations;
+    }
+
+    public float getAirTemperatureMin() {
+        return airTemperatureMin;
+    }
+
+    public void setAirTemperatureMin(float airTemperatureMin) {
+        this.airTemperatureMin = airTemperatureMin;
+    }
+
+    public float getAirTemperatureAvg() {
+        return airTemperatureAvg;
+    }
+
+    public void setAirTemperatureAvg(float airTemperatureAvg) {
+        this.airTemperatureAvg = airTemperatureAvg;
+    }
+
+    public float getAirTemperatureMax() {
+        return airTemperatureMax;
+    }
+
+    public void setAirTemperatureMax(float airTemperatureMax) {
+        this.airTemperatureMax = airTemperatureMax;
+    }
+
+    public float getWindSpeedAvg() {
+        return windSpeedAvg;
+    }
+
+    public void setWindSpeedAvg(float windSpeedAvg) {
+        this.windSpeedAvg = windSpeedAvg;
+    }
+
+    public float getWindSpeedMax() {
+        return windSpeedMax;
+    }
+
+    public void setWindSpeedMax(float windSpeedMax) {
+        this.windSpeedMax = windSpeedMax;
+    }
+
+    @Override
+    public String toString() {
+        return "WeatherDataRollup{" +
+                "id=" + id +
+                ", station='" + station + '\'' +
+                ", day=" + day +
+                ", observations=" + observations +
+                ", airTemperatureMin=" + airTemperatureMin +
+                ", airTemperatureAvg=" + airTemperatureAvg +
+                ", airTemperatureMax=" + airTemperatureMax +
+                ", windSpeedAvg=" + windSpeedAvg +
+                ", windSpeedMax=" + windSpeedMax +
+                '}';
+    }
+}
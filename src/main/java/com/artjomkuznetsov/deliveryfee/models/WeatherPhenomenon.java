@@ -0,0 +1,89 @@
+package com.artjomkuznetsov.deliveryfee.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Weather phenomena reported by the weather API. The ordinal is stored in the database,
+ * so new constants must be added to the end.
+ */
+public enum WeatherPhenomenon {
+    NONE("", Category.NONE),
+    UNKNOWN(null, Category.NONE),
+    CLEAR("Clear", Category.NONE),
+    FEW_CLOUDS("Few clouds", Category.NONE),
+    VARIABLE_CLOUDS("Variable clouds", Category.NONE),
+    CLOUDY_WITH_CLEAR_SPELLS("Cloudy with clear spells", Category.NONE),
+    OVERCAST("Overcast", Category.NONE),
+    LIGHT_SNOW_SHOWER("Light snow shower", Category.SNOW_OR_SLEET),
+    MODERATE_SNOW_SHOWER("Moderate snow shower", Category.SNOW_OR_SLEET),
+    HEAVY_SNOW_SHOWER("Heavy snow shower", Category.SNOW_OR_SLEET),
+    LIGHT_SHOWER("Light shower", Category.RAIN),
+    MODERATE_SHOWER("Moderate shower", Category.RAIN),
+    HEAVY_SHOWER("Heavy shower", Category.RAIN),
+    LIGHT_RAIN("Light rain", Category.RAIN),
+    MODERATE_RAIN("Moderate rain", Category.RAIN),
+    HEAVY_RAIN("Heavy rain", Category.RAIN),
+    GLAZE("Glaze", Category.NONE),
+    LIGHT_SLEET("Light sleet", Category.SNOW_OR_SLEET),
+    MODERATE_SLEET("Moderate sleet", Category.SNOW_OR_SLEET),
+    LIGHT_SNOWFALL("Light snowfall", Category.SNOW_OR_SLEET),
+    MODERATE_SNOWFALL("Moderate snowfall", Category.SNOW_OR_SLEET),
+    HEAVY_SNOWFALL("Heavy snowfall", Category.SNOW_OR_SLEET),
+    BLOWING_SNOW("Blowing snow", Category.SNOW_OR_SLEET),
+    DRIFTING_SNOW("Drifting snow", Category.SNOW_OR_SLEET),
+    HAIL("Hail", Category.NONE),
+    MIST("Mist", Category.NONE),
+    FOG("Fog", Category.NONE),
+    THUNDER("Thunder", Category.NONE),
+    THUNDERSTORM("Thunderstorm", Category.NONE);
+
+    public enum Category {
+        NONE, SNOW_OR_SLEET, RAIN
+    }
+
+    private static final WeatherPhenomenon[] VALUES = values();
+    private static final Map<String, WeatherPhenomenon> BY_TEXT = new HashMap<>();
+
+    static {
+        for (WeatherPhenomenon phenomenon : VALUES) {
+            if (phenomenon.text != null) {
+                BY_TEXT.put(phenomenon.text, phenomenon);
+            }
+        }
+    }
+
+    private final String text;
+    private final Category category;
+
+    WeatherPhenomenon(String text, Category category) {
+        this.text = text;
+        this.category = category;
+    }
+
+    /**
+     * @param text The phenomenon as it is written by the weather API, e.g. "Light snowfall".
+     * @return The matching phenomenon, NONE for a missing phenomenon or UNKNOWN if the text is not recognised.
+     */
+    public static WeatherPhenomenon fromText(String text) {
+        if (text == null) {
+            return NONE;
+        }
+        return BY_TEXT.getOrDefault(text.strip(), UNKNOWN);
+    }
+
+    /**
+     * @return The number of phenomena, usable as the size of a table indexed by ordinal.
+     */
+    public static int count() {
+        return VALUES.length;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Category getCategory() {
+        return category;
+    }
+}
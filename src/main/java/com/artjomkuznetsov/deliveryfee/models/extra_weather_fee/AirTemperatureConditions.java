@@ -1,11 +1,10 @@
 package com.artjomkuznetsov.deliveryfee.models.extra_weather_fee;
 
-import com.artjomkuznetsov.deliveryfee.utils.StringListConverter;
 import com.artjomkuznetsov.deliveryfee.models.ExtraWeatherFee;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Entity
@@ -14,21 +13,19 @@ public class AirTemperatureConditions extends ExtraWeatherFee {
     @NotNull
     private @Id @GeneratedValue(strategy = GenerationType.IDENTITY) int id;
 
-    @Convert(converter = StringListConverter.class)
-    @Column(name = "vehicle_types")
-    private List<String> vehicleTypes = new ArrayList<>();
-
     private float lessThan;
+    @PositiveOrZero
     private float lessThanFee;
 
     private float betweenMin;
     private float betweenMax;
+    @PositiveOrZero
     private float betweenFee;
 
     public AirTemperatureConditions() {}
 
     public AirTemperatureConditions(List<String> vehicleTypes, float lessThan, float lessThanFee, float betweenMin, float betweenMax, float betweenFee) {
-        this.vehicleTypes = vehicleTypes;
+        setVehicleTypes(vehicleTypes);
         this.lessThan = lessThan;
         this.lessThanFee = lessThanFee;
         this.betweenMin = betweenMin;
@@ -44,14 +41,6 @@ public class AirTemperatureConditions extends ExtraWeatherFee {
         this.id = id;
     }
 
-    public List<String> getVehicleTypes() {
-        return vehicleTypes;
-    }
-
-    public void setVehicleTypes(List<String> vehicleTypes) {
-        this.vehicleTypes = vehicleTypes;
-    }
-
     public float getLessThan() {
         return lessThan;
     }
@@ -96,7 +85,7 @@ public class AirTemperatureConditions extends ExtraWeatherFee {
     public String toString() {
         return "AirTemperatureConditions{" +
                 "id=" + id +
-                ", vehicleTypes=" + vehicleTypes +
+                ", vehicleTypes=" + getVehicleTypes() +
                 ", lessThan=" + lessThan +
                 ", lessThanFee=" + lessThanFee +
                 ", betweenMin=" + betweenMin +
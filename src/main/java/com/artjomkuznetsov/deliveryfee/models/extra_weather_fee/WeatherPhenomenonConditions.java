@@ -4,6 +4,7 @@ import com.artjomkuznetsov.deliveryfee.utils.StringListConverter;
 import com.artjomkuznetsov.deliveryfee.models.ExtraWeatherFee;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -14,11 +15,9 @@ public class WeatherPhenomenonConditions extends ExtraWeatherFee {
     @NotNull
     private @Id @GeneratedValue(strategy = GenerationType.IDENTITY) int id;
 
-    @Convert(converter = StringListConverter.class)
-    @Column(name = "vehicle_types")
-    private List<String> vehicleTypes = new ArrayList<>();
-
+    @PositiveOrZero
     private float snowOrSleetFee;
+    @PositiveOrZero
     private float rainFee;
 
     @Convert(converter = StringListConverter.class)
@@ -28,7 +27,7 @@ public class WeatherPhenomenonConditions extends ExtraWeatherFee {
     public WeatherPhenomenonConditions() {}
 
     public WeatherPhenomenonConditions(List<String> vehicleTypes, float snowOrSleetFee, float rainFee, List<String> forbiddenPhenomenons) {
-        this.vehicleTypes = vehicleTypes;
+        setVehicleTypes(vehicleTypes);
         this.snowOrSleetFee = snowOrSleetFee;
         this.rainFee = rainFee;
         this.forbiddenPhenomenons = forbiddenPhenomenons;
@@ -42,14 +41,6 @@ public class WeatherPhenomenonConditions extends ExtraWeatherFee {
         this.id = id;
     }
 
-    public List<String> getVehicleTypes() {
-        return vehicleTypes;
-    }
-
-    public void setVehicleTypes(List<String> vehicleTypes) {
-        this.vehicleTypes = vehicleTypes;
-    }
-
     public float getSnowOrSleetFee() {
         return snowOrSleetFee;
     }
@@ -78,7 +69,7 @@ public class WeatherPhenomenonConditions extends ExtraWeatherFee {
     public String toString() {
         return "WeatherPhenomenonConditions{" +
                 "id=" + id +
-                ", vehicleTypes=" + vehicleTypes +
+                ", vehicleTypes=" + getVehicleTypes() +
                 ", snowOrSleetFee=" + snowOrSleetFee +
                 ", rainFee=" + rainFee +
                 ", forbiddenPhenomenons=" + forbiddenPhenomenons +
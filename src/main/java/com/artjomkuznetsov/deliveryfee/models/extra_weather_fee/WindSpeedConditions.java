@@ -1,11 +1,10 @@
 package com.artjomkuznetsov.deliveryfee.models.extra_weather_fee;
 
-import com.artjomkuznetsov.deliveryfee.utils.StringListConverter;
 import com.artjomkuznetsov.deliveryfee.models.ExtraWeatherFee;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @Entity
@@ -14,19 +13,16 @@ public class WindSpeedConditions extends ExtraWeatherFee {
     @NotNull
     private @Id @GeneratedValue(strategy = GenerationType.IDENTITY) int id;
 
-    @Convert(converter = StringListConverter.class)
-    @Column(name = "vehicle_types")
-    private List<String> vehicleTypes = new ArrayList<>();
-
     private float betweenMin;
     private float betweenMax;
+    @PositiveOrZero
     private float betweenFee;
     private float forbiddenSpeed;
 
     public WindSpeedConditions() {}
 
     public WindSpeedConditions(List<String> vehicleTypes, float betweenMin, float betweenMax, float betweenFee, float forbiddenSpeed) {
-        this.vehicleTypes = vehicleTypes;
+        setVehicleTypes(vehicleTypes);
         this.betweenMin = betweenMin;
         this.betweenMax = betweenMax;
         this.betweenFee = betweenFee;
@@ -41,14 +37,6 @@ public class WindSpeedConditions extends ExtraWeatherFee {
         this.id = id;
     }
 
-    public List<String> getVehicleTypes() {
-        return vehicleTypes;
-    }
-
-    public void setVehicleTypes(List<String> vehicleTypes) {
-        this.vehicleTypes = vehicleTypes;
-    }
-
     public float getBetweenMin() {
         return betweenMin;
     }
@@ -85,7 +73,7 @@ public class WindSpeedConditions extends ExtraWeatherFee {
     public String toString() {
         return "WindSpeedConditions{" +
                 "id=" + id +
-                ", vehicleTypes=" + vehicleTypes +
+                ", vehicleTypes=" + getVehicleTypes() +
                 ", betweenMin=" + betweenMin +
                 ", betweenMax=" + betweenMax +
                 ", betweenFee=" + betweenFee +
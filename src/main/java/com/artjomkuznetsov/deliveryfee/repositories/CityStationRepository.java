@@ -0,0 +1,10 @@
+package com.artjomkuznetsov.deliveryfee.repositories;
+
+import com.artjomkuznetsov.deliveryfee.models.CityStation;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface CityStationRepository extends JpaRepository<CityStation, Integer> {
+    Optional<CityStation> findByCity(String city);
+}
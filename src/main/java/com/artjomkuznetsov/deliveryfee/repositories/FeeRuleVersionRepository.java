@@ -0,0 +1,14 @@
+package com.artjomkuznetsov.deliveryfee.repositories;
+
+import com.artjomkuznetsov.deliveryfee.models.FeeRuleVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface FeeRuleVersionRepository extends JpaRepository<FeeRuleVersion, Long> {
+
+    /**
+     * @return The versions recorded after the version with the given id, in the order they were recorded.
+     */
+    List<FeeRuleVersion> findByIdGreaterThanOrderById(long id);
+}
@@ -0,0 +1,41 @@
+package com.artjomkuznetsov.deliveryfee.repositories;
+
+import com.artjomkuznetsov.deliveryfee.models.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Atomic operations on scheduler leases. Expiries are calculated by the database, so that all instances use the same clock.
+ */
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /**
+     * Renews the lease if the owner holds it or takes it over if it has expired.
+     * @return 1 if the owner holds the lease now, 0 if another instance holds it or the lease doesn't exist.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE scheduler_lease SET owner = :owner, expires_at = DATEADD(MILLISECOND, :durationMillis, CURRENT_TIMESTAMP) " +
+            "WHERE name = :name AND (owner = :owner OR expires_at < CURRENT_TIMESTAMP)", nativeQuery = true)
+    int acquire(String name, String owner, long durationMillis);
+
+    /**
+     * Creates the lease held by the owner.
+     * @throws org.springframework.dao.DataIntegrityViolationException if the lease already exists.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO scheduler_lease (name, owner, expires_at) " +
+            "VALUES (:name, :owner, DATEADD(MILLISECOND, :durationMillis, CURRENT_TIMESTAMP))", nativeQuery = true)
+    int create(String name, String owner, long durationMillis);
+
+    /**
+     * Lets the lease expire immediately if the owner holds it, so that another instance can take it over without waiting.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE scheduler_lease SET expires_at = CURRENT_TIMESTAMP WHERE name = :name AND owner = :owner", nativeQuery = true)
+    int release(String name, String owner);
+}
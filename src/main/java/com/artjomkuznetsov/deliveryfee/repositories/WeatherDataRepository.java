@@ -5,12 +5,16 @@ import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.Optional;
 
-public interface WeatherDataRepository extends JpaRepository<WeatherData, Long> {
+public interface WeatherDataRepository extends JpaRepository<WeatherData, Long>, WeatherDataRepositoryCustom {
 
     /**
      * Finds the last entry by station name
      */
     WeatherData findFirstByStationOrderByObservationTimestampDesc(String station);
 
-    Optional<WeatherData> findByStationAndObservationTimestamp(String station, Long observationTimestamp);
+    /**
+     * Finds the latest entry of the station observed within the given time range, both ends included
+     */
+    Optional<WeatherData> findFirstByStationAndObservationTimestampBetweenOrderByObservationTimestampDesc(
+            String station, Long from, Long to);
 }
@@ -0,0 +1,40 @@
+package com.artjomkuznetsov.deliveryfee.repositories;
+
+import com.artjomkuznetsov.deliveryfee.models.WeatherData;
+
+import java.util.List;
+
+public interface WeatherDataRepositoryCustom {
+
+    /**
+     * Inserts the observations in one batch. An observation of a station that is already stored
+     * for the same observation timestamp replaces the stored one instead of creating a duplicate.
+     * @param observations The observations to store.
+     */
+    void upsertAll(List<WeatherData> observations);
+
+    /**
+     * Aggregates the observations of every station made in the given range into its rollup of the day
+     * and deletes the observations in the same transaction. An existing rollup of the day is combined with
+     * the new observations, so observations stored after a day has been rolled up are not lost.
+     * @param day The start of the UTC day the rollups belong to as epoch seconds.
+     * @param from The start of the range as epoch seconds, included.
+     * @param to The end of the range as epoch seconds, excluded.
+     * @return The number of deleted observations.
+     */
+    int rollUpAndDelete(long day, long from, long to);
+
+    /**
+     * Deletes the observations made in the given range without rolling them up.
+     * @param from The start of the range as epoch seconds, included.
+     * @param to The end of the range as epoch seconds, excluded.
+     * @return The number of deleted observations.
+     */
+    int deleteBetween(long from, long to);
+
+    /**
+     * @param from The earliest timestamp to consider as epoch seconds, included.
+     * @return The timestamp of the oldest observation made from the given time or null if there are no such observations.
+     */
+    Long findOldestObservationTimestamp(long from);
+}
@@ -0,0 +1,81 @@
+package com.artjomkuznetsov.deliveryfee.repositories;
+
+import com.artjomkuznetsov.deliveryfee.models.WeatherData;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Types;
+import java.util.List;
+
+public class WeatherDataRepositoryCustomImpl implements WeatherDataRepositoryCustom {
+    private static final String UPSERT =
+            "MERGE INTO weather_data " +
+                    "(station, stationwmo, air_temperature, wind_speed, weather_phenomenon, weather_phenomenon_code, observation_timestamp) " +
+                    "KEY (station, observation_timestamp) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * The average of the combined rollup is weighted by the number of observations on both sides.
+     */
+    private static final String ROLL_UP =
+            "MERGE INTO weather_data_rollup r USING (" +
+                    "SELECT station, COUNT(*) AS observations, " +
+                    "MIN(air_temperature) AS air_min, AVG(air_temperature) AS air_avg, MAX(air_temperature) AS air_max, " +
+                    "AVG(wind_speed) AS wind_avg, MAX(wind_speed) AS wind_max " +
+                    "FROM weather_data WHERE observation_timestamp >= ? AND observation_timestamp < ? GROUP BY station) d " +
+                    "ON r.station = d.station AND r.day_start = ? " +
+                    "WHEN MATCHED THEN UPDATE SET " +
+                    "air_temperature_min = LEAST(r.air_temperature_min, d.air_min), " +
+                    "air_temperature_avg = (r.air_temperature_avg * r.observations + d.air_avg * d.observations) / (r.observations + d.observations), " +
+                    "air_temperature_max = GREATEST(r.air_temperature_max, d.air_max), " +
+                    "wind_speed_avg = (r.wind_speed_avg * r.observations + d.wind_avg * d.observations) / (r.observations + d.observations), " +
+                    "wind_speed_max = GREATEST(r.wind_speed_max, d.wind_max), " +
+                    "observations = r.observations + d.observations " +
+                    "WHEN NOT MATCHED THEN INSERT (station, day_start, observations, air_temperature_min, air_temperature_avg, " +
+                    "air_temperature_max, wind_speed_avg, wind_speed_max) " +
+                    "VALUES (d.station, ?, d.observations, d.air_min, d.air_avg, d.air_max, d.wind_avg, d.wind_max)";
+
+    private static final String DELETE_BETWEEN =
+            "DELETE FROM weather_data WHERE observation_timestamp >= ? AND observation_timestamp < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WeatherDataRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void upsertAll(List<WeatherData> observations) {
+        jdbcTemplate.batchUpdate(UPSERT, observations, observations.size(), (statement, weatherData) -> {
+            statement.setString(1, weatherData.getStation());
+            statement.setString(2, weatherData.getStationWMO());
+            statement.setFloat(3, weatherData.getAirTemperature());
+            statement.setFloat(4, weatherData.getWindSpeed());
+            statement.setString(5, weatherData.getWeatherPhenomenon());
+            if (weatherData.getWeatherPhenomenonCode() != null) {
+                statement.setInt(6, weatherData.getWeatherPhenomenonCode().ordinal());
+            } else {
+                statement.setNull(6, Types.SMALLINT);
+            }
+            statement.setLong(7, weatherData.getObservationTimestamp());
+        });
+    }
+
+    @Override
+    @Transactional
+    public int rollUpAndDelete(long day, long from, long to) {
+        jdbcTemplate.update(ROLL_UP, from, to, day, day);
+        return deleteBetween(from, to);
+    }
+
+    @Override
+    public int deleteBetween(long from, long to) {
+        return jdbcTemplate.update(DELETE_BETWEEN, from, to);
+    }
+
+    @Override
+    public Long findOldestObservationTimestamp(long from) {
+        return jdbcTemplate.queryForObject(
+                "SELECT MIN(observation_timestamp) FROM weather_data WHERE observation_timestamp >= ?", Long.class, from);
+    }
+}
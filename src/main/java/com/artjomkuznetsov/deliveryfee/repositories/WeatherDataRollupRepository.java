@@ -0,0 +1,23 @@
+package com.artjomkuznetsov.deliveryfee.repositories;
+
+import com.artjomkuznetsov.deliveryfee.models.WeatherDataRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface WeatherDataRollupRepository extends JpaRepository<WeatherDataRollup, Long> {
+
+    Optional<WeatherDataRollup> findByStationAndDay(String station, Long day);
+
+    /**
+     * Deletes the rollups of all days before the given day in one statement
+     * @return The number of deleted rollups
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from WeatherDataRollup r where r.day < :day")
+    int deleteByDayBefore(Long day);
+}
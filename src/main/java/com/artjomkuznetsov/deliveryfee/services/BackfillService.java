@@ -0,0 +1,257 @@
+package com.artjomkuznetsov.deliveryfee.services;
+
+import com.artjomkuznetsov.deliveryfee.cache.CityStations;
+import com.artjomkuznetsov.deliveryfee.cache.LatestWeatherDataCache;
+import com.artjomkuznetsov.deliveryfee.cache.StationRegistry;
+import com.artjomkuznetsov.deliveryfee.controllers.responses.BackfillStatus;
+import com.artjomkuznetsov.deliveryfee.events.WeatherDataIngestedEvent;
+import com.artjomkuznetsov.deliveryfee.exceptions.BackfillRunningException;
+import com.artjomkuznetsov.deliveryfee.models.WeatherData;
+import com.artjomkuznetsov.deliveryfee.repositories.WeatherDataRepository;
+import com.artjomkuznetsov.deliveryfee.utils.WeatherObservationsCsvParser;
+import com.artjomkuznetsov.deliveryfee.utils.WeatherObservationsParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Imports archived weather observations from the XML and CSV files of a local directory.
+ * The files are parsed in parallel on virtual threads and handed to a single writer, which upserts
+ * the observations in large batches, so files with overlapping observations don't create duplicates.
+ * Only observations of the stations in the registry are imported.
+ */
+@Service
+public class BackfillService {
+    private static final Logger log = LoggerFactory.getLogger(BackfillService.class);
+
+    private final WeatherDataRepository weatherDataRepository;
+    private final StationRegistry stationRegistry;
+    private final LatestWeatherDataCache latestWeatherDataCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path directory;
+    private final int batchSize;
+    private final int parallelism;
+
+    private final AtomicReference<BackfillRun> lastRun = new AtomicReference<>();
+
+    public BackfillService(WeatherDataRepository weatherDataRepository, StationRegistry stationRegistry,
+                           LatestWeatherDataCache latestWeatherDataCache, ApplicationEventPublisher eventPublisher,
+                           @Value("${weather.data.backfill.directory:backfill}") String directory,
+                           @Value("${weather.data.backfill.batch-size:5000}") int batchSize,
+                           @Value("${weather.data.backfill.parallelism:4}") int parallelism) {
+        this.weatherDataRepository = weatherDataRepository;
+        this.stationRegistry = stationRegistry;
+        this.latestWeatherDataCache = latestWeatherDataCache;
+        this.eventPublisher = eventPublisher;
+        this.directory = Path.of(directory);
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Starts a backfill of the configured directory in the background.
+     * @return The status of the started backfill.
+     * @throws BackfillRunningException if a backfill is already running.
+     */
+    public BackfillStatus start() {
+        BackfillRun previous = lastRun.get();
+        BackfillRun run = new BackfillRun();
+        if (previous != null && previous.state == BackfillStatus.State.RUNNING || !lastRun.compareAndSet(previous, run)) {
+            throw new BackfillRunningException();
+        }
+        BackfillStatus status = run.status();
+        Thread.ofVirtual().name("weather-backfill").start(() -> backfill(run));
+        return status;
+    }
+
+    /**
+     * @return The status of the running or last backfill.
+     */
+    public BackfillStatus getStatus() {
+        BackfillRun run = lastRun.get();
+        if (run == null) {
+            return new BackfillStatus(BackfillStatus.State.NOT_STARTED, directory.toString(), 0, 0, 0, 0, 0,
+                    null, null, 0, null);
+        }
+        return run.status();
+    }
+
+    private void backfill(BackfillRun run) {
+        try {
+            List<Path> archives = listArchives();
+            run.files = archives.size();
+            log.info("Backfilling weather data from {} files in {}.", archives.size(), directory);
+            importArchives(run, archives);
+            run.finish(BackfillStatus.State.COMPLETED, null);
+            BackfillStatus status = run.status();
+            log.info("Backfilled {} observations from {} files in {} ({} skipped), {} observations/s.",
+                    status.observationsWritten(), status.filesParsed(), directory, status.filesFailed(),
+                    Math.round(status.observationsPerSecond()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.finish(BackfillStatus.State.FAILED, "The backfill was interrupted.");
+        } catch (Exception e) {
+            log.error("The backfill of weather data from {} failed.", directory, e);
+            run.finish(BackfillStatus.State.FAILED, e.getMessage());
+        }
+    }
+
+    private List<Path> listArchives() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("The backfill directory " + directory.toAbsolutePath() + " doesn't exist.");
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> archiveType(path) != null)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Parses the archives on virtual threads, at most {@code parallelism} at a time, while the calling thread
+     * writes the parsed observations in batches. The queue between them is bounded, so parsing can't run ahead
+     * of the database by more than a few files.
+     */
+    private void importArchives(BackfillRun run, List<Path> archives) throws InterruptedException {
+        CityStations cityStations = stationRegistry.current();
+        WeatherObservationsParser xmlParser = new WeatherObservationsParser(cityStations.getStations());
+        WeatherObservationsCsvParser csvParser = new WeatherObservationsCsvParser(cityStations.getStations());
+        BlockingQueue<ParsedArchive> parsed = new LinkedBlockingQueue<>(parallelism * 2);
+        Semaphore parsing = new Semaphore(parallelism);
+
+        ExecutorService parsers = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (Path archive : archives) {
+                parsers.submit(() -> {
+                    parsing.acquire();
+                    ParsedArchive result;
+                    try {
+                        result = new ParsedArchive(archive, parse(archive, xmlParser, csvParser), null);
+                    } catch (Exception e) {
+                        // Every archive has to put a result, otherwise the writer waits for it forever.
+                        result = new ParsedArchive(archive, List.of(), e);
+                    } finally {
+                        parsing.release();
+                    }
+                    parsed.put(result);
+                    return null;
+                });
+            }
+            write(run, parsed, archives.size());
+        } finally {
+            // Unblocks parsers waiting for the queue if writing has failed.
+            parsers.shutdownNow();
+        }
+    }
+
+    private void write(BackfillRun run, BlockingQueue<ParsedArchive> parsed, int archives) throws InterruptedException {
+        List<WeatherData> batch = new ArrayList<>(batchSize);
+        boolean latestChanged = false;
+        for (int i = 0; i < archives; i++) {
+            ParsedArchive archive = parsed.take();
+            if (archive.failure() != null) {
+                log.warn("Skipping {}, it couldn't be read: {}", archive.path(), archive.failure().getMessage());
+                run.filesFailed.incrementAndGet();
+                continue;
+            }
+            run.filesParsed.incrementAndGet();
+            run.observationsParsed.addAndGet(archive.observations().size());
+            batch.addAll(archive.observations());
+            if (batch.size() >= batchSize) {
+                latestChanged |= flush(run, batch);
+            }
+        }
+        if (!batch.isEmpty()) {
+            latestChanged |= flush(run, batch);
+        }
+        if (latestChanged) {
+            eventPublisher.publishEvent(new WeatherDataIngestedEvent((int) run.observationsWritten.get()));
+        }
+    }
+
+    /**
+     * @return Whether an observation of the batch has become the latest observation of its station.
+     */
+    private boolean flush(BackfillRun run, List<WeatherData> batch) {
+        weatherDataRepository.upsertAll(batch);
+        boolean latestChanged = false;
+        for (WeatherData weatherData : batch) {
+            latestChanged |= latestWeatherDataCache.publish(weatherData) == weatherData;
+        }
+        run.observationsWritten.addAndGet(batch.size());
+        log.debug("Backfilled {} of {} parsed observations.", run.observationsWritten.get(), run.observationsParsed.get());
+        batch.clear();
+        return latestChanged;
+    }
+
+    private static List<WeatherData> parse(Path archive, WeatherObservationsParser xmlParser,
+                                           WeatherObservationsCsvParser csvParser) throws IOException, XMLStreamException {
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(archive))) {
+            return "csv".equals(archiveType(archive)) ? csvParser.parse(input) : xmlParser.parse(input);
+        }
+    }
+
+    /**
+     * @return "xml" or "csv" depending on the file extension or null if the file is not an archive.
+     */
+    private static String archiveType(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".xml")) {
+            return "xml";
+        }
+        return name.endsWith(".csv") ? "csv" : null;
+    }
+
+    private record ParsedArchive(Path path, List<WeatherData> observations, Exception failure) {}
+
+    private class BackfillRun {
+        private final Instant startedAt = Instant.now();
+        private final AtomicInteger filesParsed = new AtomicInteger();
+        private final AtomicInteger filesFailed = new AtomicInteger();
+        private final AtomicLong observationsParsed = new AtomicLong();
+        private final AtomicLong observationsWritten = new AtomicLong();
+        private volatile int files;
+        private volatile BackfillStatus.State state = BackfillStatus.State.RUNNING;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        void finish(BackfillStatus.State state, String error) {
+            this.finishedAt = Instant.now();
+            this.error = error;
+            this.state = state;
+        }
+
+        BackfillStatus status() {
+            Instant finished = finishedAt;
+            Duration elapsed = Duration.between(startedAt, finished != null ? finished : Instant.now());
+            long written = observationsWritten.get();
+            double perSecond = elapsed.isZero() ? 0 : written * 1_000_000_000.0 / elapsed.toNanos();
+            return new BackfillStatus(state, directory.toString(), files, filesParsed.get(), filesFailed.get(),
+                    observationsParsed.get(), written, startedAt, finished, perSecond, error);
+        }
+    }
+}
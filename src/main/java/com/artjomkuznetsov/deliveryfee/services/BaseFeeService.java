@@ -1,6 +1,8 @@
 package com.artjomkuznetsov.deliveryfee.services;
 
 
+import com.artjomkuznetsov.deliveryfee.cache.CityStations;
+import com.artjomkuznetsov.deliveryfee.events.FeeRulesChangedEvent;
 import com.artjomkuznetsov.deliveryfee.exceptions.BadRequestBodyException;
 import com.artjomkuznetsov.deliveryfee.utils.Updater;
 import com.artjomkuznetsov.deliveryfee.assemblers.RegionalBaseFeeModelAssembler;
@@ -8,9 +10,11 @@ import com.artjomkuznetsov.deliveryfee.controllers.RegionalBaseFeeController;
 import com.artjomkuznetsov.deliveryfee.exceptions.RegionalBaseFeeNotFoundException;
 import com.artjomkuznetsov.deliveryfee.models.RegionalBaseFee;
 import com.artjomkuznetsov.deliveryfee.repositories.RegionalBaseFeeRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Map;
@@ -20,14 +24,15 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @Service
 public class BaseFeeService {
-    private static final List<String> NON_NEGATIVE_FIELDS = List.of("carFee", "bikeFee", "scooterFee");
 
     private final RegionalBaseFeeRepository repository;
     private final RegionalBaseFeeModelAssembler assembler;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public BaseFeeService(RegionalBaseFeeRepository repository, RegionalBaseFeeModelAssembler assembler) {
+    public BaseFeeService(RegionalBaseFeeRepository repository, RegionalBaseFeeModelAssembler assembler, ApplicationEventPublisher eventPublisher) {
         this.repository = repository;
         this.assembler = assembler;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -60,6 +65,31 @@ public class BaseFeeService {
                 linkTo(methodOn(RegionalBaseFeeController.class).all()).withRel("regionalBaseFees"));
     }
 
+    /**
+     * Creates the RegionalBaseFee for a city that has no base fee yet. The city is stored in lower case.
+     * @param baseFee The city and its fees.
+     * @return EntityModel containing the created RegionalBaseFee with links to the corresponding operations.
+     * @throws BadRequestBodyException if the city is missing, a fee is negative or the city already has a base fee.
+     */
+    @Transactional
+    public EntityModel<RegionalBaseFee> createBaseFee(RegionalBaseFee baseFee) {
+        if (baseFee.getCity() == null || baseFee.getCity().isBlank()) {
+            throw new BadRequestBodyException("city must be specified.");
+        }
+        if (baseFee.getCarFee() < 0 || baseFee.getBikeFee() < 0 || baseFee.getScooterFee() < 0) {
+            throw new BadRequestBodyException("Fees cannot be negative.");
+        }
+        String city = CityStations.normalize(baseFee.getCity().strip());
+        if (repository.findByCity(city).isPresent()) {
+            throw new BadRequestBodyException("Regional base fee for city " + city + " already exists.");
+        }
+
+        RegionalBaseFee createdBaseFee = repository.save(
+                new RegionalBaseFee(city, baseFee.getCarFee(), baseFee.getScooterFee(), baseFee.getBikeFee()));
+        eventPublisher.publishEvent(new FeeRulesChangedEvent());
+        return assembler.toModel(createdBaseFee);
+    }
+
     /**
      * Updates the RegionalBaseFee for the specified city with the provided fields.
      * If no RegionalBaseFee is found for the specified city, a RegionalBaseFeeNotFoundException is thrown.
@@ -68,14 +98,16 @@ public class BaseFeeService {
      * @param city The name of the city for which to update the RegionalBaseFee.
      * @return EntityModel containing the updated RegionalBaseFee with links to the corresponding operations.
      * @throws RegionalBaseFeeNotFoundException if no RegionalBaseFee is found for the specified city.
-     * @throws BadRequestBodyException If the updated float value of a field in {@code NON_NEGATIVE_FIELDS} is negative.
+     * @throws BadRequestBodyException If the updated value of a fee is negative.
      * @throws BadRequestBodyException If the value of a field is not a number or not compatible with float type.
      */
+    @Transactional
     public EntityModel<RegionalBaseFee> updateBaseFee(Map<String, Object> fields, String city) {
         RegionalBaseFee updatedBaseFee = repository.findByCity(city)
                 .orElseThrow(() -> new RegionalBaseFeeNotFoundException(city));
 
-        repository.save(Updater.updateEntity(updatedBaseFee, fields, NON_NEGATIVE_FIELDS));
+        repository.save(Updater.updateEntity(updatedBaseFee, fields));
+        eventPublisher.publishEvent(new FeeRulesChangedEvent());
         return assembler.toModel(updatedBaseFee);
     }
 }
@@ -1,62 +1,75 @@
 package com.artjomkuznetsov.deliveryfee.services;
 
-import com.artjomkuznetsov.deliveryfee.controllers.DeliveryFeeController;
+import com.artjomkuznetsov.deliveryfee.cache.CityStations;
+import com.artjomkuznetsov.deliveryfee.cache.FeeMatrix;
+import com.artjomkuznetsov.deliveryfee.cache.FeeRuleCache;
+import com.artjomkuznetsov.deliveryfee.cache.FeeRuleHistory;
+import com.artjomkuznetsov.deliveryfee.cache.FeeRuleSnapshot;
+import com.artjomkuznetsov.deliveryfee.cache.LatestWeatherDataCache;
+import com.artjomkuznetsov.deliveryfee.cache.StationRegistry;
+import com.artjomkuznetsov.deliveryfee.controllers.requests.FeeQuoteRequest;
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeQuoteResult;
 import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeResponse;
+import com.artjomkuznetsov.deliveryfee.events.CityStationsChangedEvent;
+import com.artjomkuznetsov.deliveryfee.events.FeeRulesChangedEvent;
+import com.artjomkuznetsov.deliveryfee.events.WeatherDataIngestedEvent;
 import com.artjomkuznetsov.deliveryfee.exceptions.ExtraWeatherConditionsNotFoundException;
 import com.artjomkuznetsov.deliveryfee.exceptions.RegionalBaseFeeNotFoundException;
 import com.artjomkuznetsov.deliveryfee.exceptions.VehicleForbiddenException;
+import com.artjomkuznetsov.deliveryfee.metrics.FeeMetrics;
 import com.artjomkuznetsov.deliveryfee.models.RegionalBaseFee;
+import com.artjomkuznetsov.deliveryfee.models.Vehicle;
 import com.artjomkuznetsov.deliveryfee.models.WeatherData;
 import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.AirTemperatureConditions;
 import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WeatherPhenomenonConditions;
 import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WindSpeedConditions;
-import com.artjomkuznetsov.deliveryfee.repositories.*;
+import com.artjomkuznetsov.deliveryfee.repositories.WeatherDataRepository;
 import org.apache.coyote.BadRequestException;
-import org.springframework.hateoas.EntityModel;
-import org.springframework.hateoas.Link;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
-import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.time.*;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
-import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.Optional;
-
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import java.util.*;
 
 @Service
 public class CalculationService {
-    private static final List<String> VEHICLES = List.of("car", "bike", "scooter");
-
-    private static final Map<String, String> CITIES = Map.of(
-            "tallinn", "Tallinn-Harku",
-            "tartu", "Tartu-Tõravere",
-            "pärnu", "Pärnu");
-
-    private static final List<String> SNOW_OR_SLEET = List.of(
-            "Light snow shower", "Moderate snow shower", "Heavy snow shower",
-            "Light snowfall", "Moderate snowfall", "Heavy snowfall", "Blowing snow", "Drifting snow",
-            "Light sleet", "Moderate sleet");
+    private static final List<String> VEHICLES = Vehicle.names();
 
-    private static final List<String> RAIN = List.of(
-            "Light shower", "Moderate shower", "Heavy shower",
-            "Light rain", "Moderate rain", "Heavy rain");
+    private static final String INVALID_REQUEST_MESSAGE =
+            "Invalid request. Make sure you specified the city and transport parameters properly.";
+    private static final String NO_WEATHER_DATA_MESSAGE =
+            "It is not possible to obtain weather data for the specified time period.";
+    /**
+     * The offset the requested local times are converted with, the same as for the weather data lookup.
+     */
+    private static final ZoneOffset LOCAL_OFFSET = ZoneOffset.ofHours(2);
 
     private final WeatherDataRepository weatherDataRepository;
-    private final RegionalBaseFeeRepository baseFeeRepository;
-    private final AirTemperatureConditionsRepository airTemperatureRepository;
-    private final WeatherPhenomenonConditionsRepository weatherPhenomenonRepository;
-    private final WindSpeedConditionsRepository windSpeedRepository;
+    private final FeeRuleCache feeRuleCache;
+    private final FeeRuleHistory feeRuleHistory;
+    private final StationRegistry stationRegistry;
+    private final LatestWeatherDataCache latestWeatherDataCache;
+    private final long weatherDataToleranceSeconds;
+    private final FeeMetrics feeMetrics;
+
+    private volatile FeeMatrix feeMatrix;
 
-    public CalculationService(WeatherDataRepository weatherDataRepository, RegionalBaseFeeRepository baseFeeRepository, AirTemperatureConditionsRepository airTemperatureRepository, WeatherPhenomenonConditionsRepository weatherPhenomenonRepository, WindSpeedConditionsRepository windSpeedRepository) {
+    public CalculationService(WeatherDataRepository weatherDataRepository, FeeRuleCache feeRuleCache,
+                              FeeRuleHistory feeRuleHistory, StationRegistry stationRegistry,
+                              LatestWeatherDataCache latestWeatherDataCache,
+                              @Value("${weather.data.lookup.tolerance-seconds:3600}") long weatherDataToleranceSeconds,
+                              FeeMetrics feeMetrics) {
         this.weatherDataRepository = weatherDataRepository;
-        this.baseFeeRepository = baseFeeRepository;
-        this.airTemperatureRepository = airTemperatureRepository;
-        this.weatherPhenomenonRepository = weatherPhenomenonRepository;
-        this.windSpeedRepository = windSpeedRepository;
+        this.feeRuleCache = feeRuleCache;
+        this.feeRuleHistory = feeRuleHistory;
+        this.stationRegistry = stationRegistry;
+        this.latestWeatherDataCache = latestWeatherDataCache;
+        this.weatherDataToleranceSeconds = weatherDataToleranceSeconds;
+        this.feeMetrics = feeMetrics;
     }
 
     /**
@@ -65,26 +78,12 @@ public class CalculationService {
      * @param city (Optional) The name of the city for which to calculate the fee.
      * @param vehicle (Optional) The type of vehicle for which to calculate the fee.
      * @param dateTime (Optional) The date and time for which to calculate the fee.
-     * @return An EntityModel containing the calculated fee response, with a self-referencing link.
+     * @return The calculated fee response.
      * @throws BadRequestException if the provided parameters are invalid or if the calculation fails.
      */
-    public EntityModel<FeeResponse> calculateFee(Optional<String> city, Optional<String> vehicle, Optional<LocalDateTime> dateTime)
+    public FeeResponse calculateFee(Optional<String> city, Optional<String> vehicle, Optional<LocalDateTime> dateTime)
             throws BadRequestException {
-        FeeResponse feeResponse;
-        String uri = linkTo(methodOn(DeliveryFeeController.class).getFee(city, vehicle, dateTime)).toString();
-
-        if (dateTime.isPresent()) {
-            String formattedDateTime = dateTime.get().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-            uri = UriComponentsBuilder.fromUriString(uri)
-                    .replaceQueryParam("dateTime", formattedDateTime)
-                    .build().toUriString();
-            feeResponse = new FeeResponse(calculateTotalFee(city, vehicle, dateTime));
-        } else {
-            feeResponse = new FeeResponse(calculateTotalFee(city, vehicle));
-            uri = uri.replace("&dateTime=", "").replace("{&dateTime}", "");
-        }
-
-        return EntityModel.of(feeResponse, Link.of(uri).withSelfRel());
+        return new FeeResponse(calculateTotalFee(city, vehicle, dateTime));
     }
 
     /**
@@ -105,8 +104,8 @@ public class CalculationService {
      *
      * @param optCity An optional parameter representing the city for which the fee is calculated.
      * @param optVehicle An optional parameter representing the vehicle type for which the fee is calculated.
-     * @param dateTime An optional parameter representing the date and time for which weather data will be taken.
-     *                 If dateTime is empty, the latest weather data will be taken.
+     * @param dateTime An optional parameter representing the date and time for which weather data and rules will be taken.
+     *                 If dateTime is empty, the latest weather data and the current rules will be taken.
      * @return The calculated total fee.
      * @throws BadRequestException if there is a problem with the request parameters, such as missing or invalid data.
      * @throws VehicleForbiddenException if the specified vehicle is not allowed according to the weather data.
@@ -115,33 +114,211 @@ public class CalculationService {
      */
     public float calculateTotalFee(Optional<String> optCity, Optional<String> optVehicle, Optional<LocalDateTime> dateTime)
             throws BadRequestException, VehicleForbiddenException {
-        if (optCity.isPresent() && optVehicle.isPresent() && !optCity.get().isEmpty() && !optVehicle.get().isEmpty()) {
-            String city = optCity.get().toLowerCase();
-            String vehicle = optVehicle.get().toLowerCase();
-            if (CITIES.containsKey(city)) {
-                if (VEHICLES.contains(vehicle)) {
-                    String station = CITIES.get(city);
-                    float baseFee = calculateRegionalBaseFee(city, vehicle);
-                    WeatherData weatherData;
-                    if (dateTime.isPresent()) {
-                        weatherData = getWeatherDataByLocalDateTime(station, dateTime.get());
-                    } else {
-                        weatherData = weatherDataRepository.findFirstByStationOrderByObservationTimestampDesc(station);
-                    }
-                    float extraFee = calculateExtraFee(vehicle, weatherData);
-
-                    if (extraFee == -1) {
-                        throw new VehicleForbiddenException();
-                    } else {
-                        return baseFee + extraFee;
-                    }
+        String city = optCity.map(CityStations::normalize).orElse(null);
+        String vehicle = optVehicle.map(String::toLowerCase).orElse(null);
+        long start = System.nanoTime();
+        FeeQuoteResult.Status outcome = FeeQuoteResult.Status.ERROR;
+        try {
+            String station = resolveStation(city, vehicle);
+            float fee;
+            if (dateTime.isPresent()) {
+                WeatherData weatherData = getWeatherDataByLocalDateTime(station, dateTime.get());
+                fee = calculateTotalFee(city, vehicle, weatherData, rulesAt(dateTime.get()));
+            } else {
+                fee = getCurrentFee(city, vehicle, station);
+            }
+            outcome = FeeQuoteResult.Status.OK;
+            return fee;
+        } catch (BadRequestException e) {
+            outcome = FeeQuoteResult.Status.BAD_REQUEST;
+            throw e;
+        } catch (VehicleForbiddenException e) {
+            outcome = FeeQuoteResult.Status.FORBIDDEN;
+            throw e;
+        } catch (RegionalBaseFeeNotFoundException e) {
+            outcome = FeeQuoteResult.Status.NOT_FOUND;
+            throw e;
+        } finally {
+            feeMetrics.recordCalculation(cityTag(city), vehicleTag(vehicle), dateTime.isPresent(), outcome,
+                    System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Calculates the fees for all given quote requests. A failed item doesn't fail the whole batch,
+     * its result contains the reason instead of the fee. A null item is answered as a bad request.
+     * Historical quotes use the rules that were in force at their time and their weather data is looked up once
+     * per distinct station and time.
+     *
+     * @param requests The quote requests.
+     * @return One result per request in the same order.
+     */
+    public List<FeeQuoteResult> calculateFees(List<FeeQuoteRequest> requests) {
+        Map<WeatherDataKey, Optional<WeatherData>> resolvedWeatherData = new HashMap<>();
+        List<FeeQuoteResult> results = new ArrayList<>(requests.size());
+        for (FeeQuoteRequest request : requests) {
+            results.add(calculateFee(request, resolvedWeatherData));
+        }
+        return results;
+    }
+
+    private FeeQuoteResult calculateFee(FeeQuoteRequest request, Map<WeatherDataKey, Optional<WeatherData>> resolvedWeatherData) {
+        long start = System.nanoTime();
+        if (request == null) {
+            FeeQuoteResult result = new FeeQuoteResult(null, null, null, FeeQuoteResult.Status.BAD_REQUEST, null,
+                    INVALID_REQUEST_MESSAGE);
+            feeMetrics.recordCalculation(FeeMetrics.UNKNOWN, FeeMetrics.UNKNOWN, false, result.status(),
+                    System.nanoTime() - start);
+            return result;
+        }
+        String city = request.city() != null ? CityStations.normalize(request.city()) : null;
+        String vehicle = request.vehicle() != null ? request.vehicle().toLowerCase() : null;
+        FeeQuoteResult result = calculateFee(request, city, vehicle, resolvedWeatherData);
+        feeMetrics.recordCalculation(cityTag(city), vehicleTag(vehicle), request.dateTime() != null, result.status(),
+                System.nanoTime() - start);
+        return result;
+    }
+
+    private FeeQuoteResult calculateFee(FeeQuoteRequest request, String city, String vehicle,
+                                        Map<WeatherDataKey, Optional<WeatherData>> resolvedWeatherData) {
+        try {
+            String station = resolveStation(city, vehicle);
+            if (request.dateTime() == null) {
+                return FeeQuoteResult.ok(request, getCurrentFee(city, vehicle, station));
+            }
+            WeatherDataKey key = new WeatherDataKey(station, toObservationTimestamp(request.dateTime()));
+            Optional<WeatherData> resolved = resolvedWeatherData.get(key);
+            if (resolved == null) {
+                resolved = findWeatherData(station, key.observationTimestamp());
+                resolvedWeatherData.put(key, resolved);
+            }
+            WeatherData weatherData = resolved.orElseThrow(() -> new BadRequestException(NO_WEATHER_DATA_MESSAGE));
+            return FeeQuoteResult.ok(request, calculateTotalFee(city, vehicle, weatherData, rulesAt(request.dateTime())));
+        } catch (BadRequestException e) {
+            return FeeQuoteResult.failed(request, FeeQuoteResult.Status.BAD_REQUEST, e.getMessage());
+        } catch (VehicleForbiddenException e) {
+            return FeeQuoteResult.failed(request, FeeQuoteResult.Status.FORBIDDEN, e.getMessage());
+        } catch (RegionalBaseFeeNotFoundException e) {
+            return FeeQuoteResult.failed(request, FeeQuoteResult.Status.NOT_FOUND, e.getMessage());
+        } catch (ExtraWeatherConditionsNotFoundException e) {
+            return FeeQuoteResult.failed(request, FeeQuoteResult.Status.ERROR, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the fee based on the latest weather data from the precomputed fee matrix.
+     * Only if the matrix has no fee for the city and vehicle, the fee is calculated again to raise the proper exception.
+     */
+    private float getCurrentFee(String city, String vehicle, String station) {
+        float fee = getFeeMatrix().getFee(city, vehicle);
+        if (fee == FeeMatrix.FORBIDDEN) {
+            throw new VehicleForbiddenException();
+        } else if (Float.isNaN(fee)) {
+            return calculateTotalFee(city, vehicle, latestWeatherDataCache.get(station), feeRuleCache.current());
+        }
+        return fee;
+    }
+
+    /**
+     * @return The fee matrix for the current rules, registry and latest weather data, rebuilding it if any of them has changed.
+     */
+    public FeeMatrix getFeeMatrix() {
+        FeeMatrix matrix = feeMatrix;
+        if (matrix == null || !matrix.isBuiltFrom(feeRuleCache.current(), stationRegistry.current(),
+                latestWeatherDataCache.getVersion())) {
+            matrix = refreshFeeMatrix();
+        }
+        return matrix;
+    }
+
+    /**
+     * Precomputes the fees of every registered city and vehicle from the current rules and the latest weather data.
+     * @return The new fee matrix.
+     */
+    public synchronized FeeMatrix refreshFeeMatrix() {
+        long weatherVersion = latestWeatherDataCache.getVersion();
+        FeeRuleSnapshot rules = feeRuleCache.current();
+        CityStations cityStations = stationRegistry.current();
+        List<String> cities = cityStations.getCities();
+        float[] fees = new float[cities.size() * VEHICLES.size()];
+        for (int cityIndex = 0; cityIndex < cities.size(); cityIndex++) {
+            String city = cities.get(cityIndex);
+            WeatherData weatherData = latestWeatherDataCache.get(cityStations.getStation(city));
+            for (int vehicleIndex = 0; vehicleIndex < VEHICLES.size(); vehicleIndex++) {
+                String vehicle = VEHICLES.get(vehicleIndex);
+                float fee;
+                try {
+                    float extraFee = calculateExtraFee(vehicle, weatherData, rules);
+                    fee = extraFee == -1 ? FeeMatrix.FORBIDDEN : calculateRegionalBaseFee(city, vehicle, rules) + extraFee;
+                } catch (RegionalBaseFeeNotFoundException | ExtraWeatherConditionsNotFoundException e) {
+                    fee = Float.NaN;
                 }
+                fees[cityIndex * VEHICLES.size() + vehicleIndex] = fee;
             }
         }
-        throw new BadRequestException("Invalid request. Make sure you specified the city and transport parameters properly.");
+        FeeMatrix matrix = new FeeMatrix(cityStations, VEHICLES, fees, rules, weatherVersion);
+        feeMatrix = matrix;
+        return matrix;
+    }
+
+    @EventListener
+    public void onWeatherDataIngested(WeatherDataIngestedEvent event) {
+        refreshFeeMatrix();
+    }
+
+    /**
+     * Runs after {@link FeeRuleCache} has reloaded the rules.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFeeRulesChanged(FeeRulesChangedEvent event) {
+        refreshFeeMatrix();
+    }
+
+    /**
+     * Runs after {@link StationRegistry} has reloaded the registry.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCityStationsChanged(CityStationsChangedEvent event) {
+        refreshFeeMatrix();
+    }
+
+    private String resolveStation(String city, String vehicle) throws BadRequestException {
+        String station = city != null ? stationRegistry.current().getStation(city) : null;
+        if (station != null && vehicle != null && VEHICLES.contains(vehicle)) {
+            return station;
+        }
+        throw new BadRequestException(INVALID_REQUEST_MESSAGE);
     }
 
-    private WeatherData getWeatherDataByLocalDateTime(String station, LocalDateTime dateTime) throws BadRequestException {
+    private float calculateTotalFee(String city, String vehicle, WeatherData weatherData, FeeRuleSnapshot rules) {
+        float baseFee = calculateRegionalBaseFee(city, vehicle, rules);
+        float extraFee = calculateExtraFee(vehicle, weatherData, rules);
+
+        if (extraFee == -1) {
+            throw new VehicleForbiddenException();
+        } else {
+            return baseFee + extraFee;
+        }
+    }
+
+    /**
+     * Finds the weather data of the station that was valid at the specified local date and time.
+     * @param station The name of the station.
+     * @param dateTime The local date and time.
+     * @return The weather data valid at the specified time.
+     * @throws BadRequestException if there is no weather data for the specified time.
+     */
+    public WeatherData getWeatherDataByLocalDateTime(String station, LocalDateTime dateTime) throws BadRequestException {
+        return findWeatherData(station, toObservationTimestamp(dateTime))
+                .orElseThrow(() -> new BadRequestException(NO_WEATHER_DATA_MESSAGE));
+    }
+
+    /**
+     * Converts the local date and time to the UTC timestamp of the observation that was valid at that time.
+     */
+    private static long toObservationTimestamp(LocalDateTime dateTime) {
         if (dateTime.getMinute() >= 15) {
             dateTime = dateTime.minusMinutes(dateTime.getMinute() - 15)
                     .minusSeconds(dateTime.getSecond());
@@ -153,20 +330,49 @@ public class CalculationService {
         // Converts to UTC Timezone
         dateTime = dateTime.minusHours(2);
 
-        long timestamp = dateTime.atZone(ZoneOffset.UTC).toEpochSecond();
-        try {
-            return weatherDataRepository.findByStationAndObservationTimestamp(station, timestamp)
-                        .orElseGet(() -> weatherDataRepository.findByStationAndObservationTimestamp(station, timestamp - 1)
-                                .orElseGet(() -> weatherDataRepository.findByStationAndObservationTimestamp(station, timestamp - 2)
-                                        .orElseThrow()));
-        } catch (NoSuchElementException e) {
-            throw new BadRequestException("It is not possible to obtain weather data for the specified time period.");
-        }
+        return dateTime.atZone(ZoneOffset.UTC).toEpochSecond();
+    }
+
+    /**
+     * @return The rules that were in force at the local date and time.
+     */
+    private FeeRuleSnapshot rulesAt(LocalDateTime dateTime) {
+        return feeRuleHistory.at(dateTime.toInstant(LOCAL_OFFSET));
+    }
+
+    /**
+     * Finds the latest observation of the station made at or before the timestamp, but not earlier than the configured tolerance.
+     */
+    private Optional<WeatherData> findWeatherData(String station, long timestamp) {
+        long start = System.nanoTime();
+        Optional<WeatherData> weatherData = weatherDataRepository
+                .findFirstByStationAndObservationTimestampBetweenOrderByObservationTimestampDesc(
+                        station, timestamp - weatherDataToleranceSeconds, timestamp);
+        feeMetrics.recordWeatherLookup(weatherData.isPresent(), System.nanoTime() - start);
+        return weatherData;
     }
 
+    private String cityTag(String city) {
+        return city != null && stationRegistry.current().containsCity(city) ? city : FeeMetrics.UNKNOWN;
+    }
+
+    private static String vehicleTag(String vehicle) {
+        return vehicle != null && VEHICLES.contains(vehicle) ? vehicle : FeeMetrics.UNKNOWN;
+    }
+
+    /**
+     * Calculates the regional base fee from the current rule snapshot.
+     * @param city The name of the city in lower case.
+     * @param vehicle The type of vehicle in lower case.
+     * @return The regional base fee for the specified city and vehicle.
+     * @throws RegionalBaseFeeNotFoundException if no RegionalBaseFee is found for the specified city.
+     */
     public float calculateRegionalBaseFee(String city, String vehicle) {
-        RegionalBaseFee RBF = baseFeeRepository.findByCity(city)
-                .orElseThrow(() -> new RegionalBaseFeeNotFoundException(city));
+        return calculateRegionalBaseFee(city, vehicle, feeRuleCache.current());
+    }
+
+    private float calculateRegionalBaseFee(String city, String vehicle, FeeRuleSnapshot rules) {
+        RegionalBaseFee RBF = rules.getBaseFee(city);
 
         return switch (vehicle) {
             case "car" -> RBF.getCarFee();
@@ -176,21 +382,30 @@ public class CalculationService {
         };
     }
 
+    /**
+     * Calculates the extra fee for the given vehicle and weather data from the current rule snapshot.
+     * @param vehicle The type of vehicle in lower case.
+     * @param weatherData The weather data the extra fee is based on.
+     * @return The extra fee or -1 if the use of the vehicle is forbidden due to weather conditions.
+     * @throws ExtraWeatherConditionsNotFoundException if one of weather conditions are not found.
+     */
     public float calculateExtraFee(String vehicle, WeatherData weatherData) {
-        AirTemperatureConditions airConditions = airTemperatureRepository.findFirstBy()
-                .orElseThrow(ExtraWeatherConditionsNotFoundException::new);
-        WindSpeedConditions windConditions = windSpeedRepository.findFirstBy()
-                .orElseThrow(ExtraWeatherConditionsNotFoundException::new);
-        WeatherPhenomenonConditions phenomenonConditions = weatherPhenomenonRepository.findFirstBy()
-                .orElseThrow(ExtraWeatherConditionsNotFoundException::new);
+        return calculateExtraFee(vehicle, weatherData, feeRuleCache.current());
+    }
+
+    private float calculateExtraFee(String vehicleName, WeatherData weatherData, FeeRuleSnapshot rules) {
+        Vehicle vehicle = Vehicle.fromName(vehicleName);
+        AirTemperatureConditions airConditions = rules.getAirConditions();
+        WindSpeedConditions windConditions = rules.getWindConditions();
+        WeatherPhenomenonConditions phenomenonConditions = rules.getPhenomenonConditions();
         float extraFee = 0;
         if (weatherData != null && airConditions != null && windConditions != null && phenomenonConditions != null) {
-            if (airConditions.getVehicleTypes().contains(vehicle)) {
+            if (airConditions.appliesTo(vehicle)) {
                 float airExtraFee = calculateTemperatureExtraFee(airConditions, weatherData.getAirTemperature());
                 extraFee += airExtraFee;
             }
 
-            if (windConditions.getVehicleTypes().contains(vehicle)) {
+            if (windConditions.appliesTo(vehicle)) {
                 float windExtraFee = calculateWindExtraFee(windConditions, weatherData.getWindSpeed());
                 if (windExtraFee == -1) {
                     return -1;
@@ -199,8 +414,8 @@ public class CalculationService {
                 }
             }
 
-            if (phenomenonConditions.getVehicleTypes().contains(vehicle)) {
-                float phenomenonExtraFee = calculatePhenomenonExtraFee(phenomenonConditions, weatherData.getWeatherPhenomenon());
+            if (phenomenonConditions.appliesTo(vehicle)) {
+                float phenomenonExtraFee = rules.getPhenomenonFee(weatherData.getWeatherPhenomenonCode());
                 if (phenomenonExtraFee == -1) {
                     return -1;
                 } else {
@@ -232,15 +447,5 @@ public class CalculationService {
         return extraFeeForWind;
     }
 
-    private float calculatePhenomenonExtraFee(WeatherPhenomenonConditions phenomenonConditions, String phenomenon) {
-        float extraFeeForPhenomenon = 0;
-        if (SNOW_OR_SLEET.contains(phenomenon)) {
-            extraFeeForPhenomenon = phenomenonConditions.getSnowOrSleetFee();
-        } else if (RAIN.contains(phenomenon)) {
-            extraFeeForPhenomenon = phenomenonConditions.getRainFee();
-        } else if (phenomenonConditions.getForbiddenPhenomenons().contains(phenomenon)) {
-            return -1;
-        }
-        return extraFeeForPhenomenon;
-    }
+    private record WeatherDataKey(String station, long observationTimestamp) {}
 }
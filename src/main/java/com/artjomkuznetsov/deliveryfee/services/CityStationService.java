@@ -0,0 +1,115 @@
+package com.artjomkuznetsov.deliveryfee.services;
+
+import com.artjomkuznetsov.deliveryfee.assemblers.CityStationModelAssembler;
+import com.artjomkuznetsov.deliveryfee.cache.CityStations;
+import com.artjomkuznetsov.deliveryfee.controllers.CityStationController;
+import com.artjomkuznetsov.deliveryfee.events.CityStationsChangedEvent;
+import com.artjomkuznetsov.deliveryfee.exceptions.BadRequestBodyException;
+import com.artjomkuznetsov.deliveryfee.exceptions.CityStationNotFoundException;
+import com.artjomkuznetsov.deliveryfee.models.CityStation;
+import com.artjomkuznetsov.deliveryfee.repositories.CityStationRepository;
+import com.artjomkuznetsov.deliveryfee.utils.Updater;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+@Service
+public class CityStationService {
+    private final CityStationRepository repository;
+    private final CityStationModelAssembler assembler;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CityStationService(CityStationRepository repository, CityStationModelAssembler assembler, ApplicationEventPublisher eventPublisher) {
+        this.repository = repository;
+        this.assembler = assembler;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Retrieves all registered cities with their stations and links to the corresponding operations.
+     * @return A CollectionModel containing EntityModel instances of all CityStation entities.
+     */
+    public CollectionModel<EntityModel<CityStation>> getAllCities() {
+        List<EntityModel<CityStation>> cities = repository.findAll().stream()
+                .map(assembler::toModel)
+                .toList();
+
+        return CollectionModel.of(cities, linkTo(methodOn(CityStationController.class).all()).withSelfRel());
+    }
+
+    /**
+     * Retrieves the station of the specified city with links to the corresponding operations.
+     * @param city The name of the city in any case.
+     * @return An EntityModel representing the CityStation entity for the specified city.
+     * @throws CityStationNotFoundException if the city is not registered.
+     */
+    public EntityModel<CityStation> getOneByCity(String city) {
+        return assembler.toModel(findByCity(city));
+    }
+
+    /**
+     * Registers a new city. The city is stored in lower case and the registry is reloaded once it has been saved,
+     * so the city can be used for fee calculations and its station is ingested from the next run on.
+     * @param cityStation The city and its station.
+     * @return EntityModel containing the registered city with links to the corresponding operations.
+     * @throws BadRequestBodyException if the city or station is missing or the city is already registered.
+     */
+    public EntityModel<CityStation> createCity(CityStation cityStation) {
+        if (isBlank(cityStation.getCity()) || isBlank(cityStation.getStation())) {
+            throw new BadRequestBodyException("city and station must be specified.");
+        }
+        String city = CityStations.normalize(cityStation.getCity().strip());
+        if (repository.findByCity(city).isPresent()) {
+            throw new BadRequestBodyException("City " + city + " is already registered.");
+        }
+
+        CityStation created = repository.save(new CityStation(city, cityStation.getStation().strip()));
+        eventPublisher.publishEvent(new CityStationsChangedEvent());
+        return assembler.toModel(created);
+    }
+
+    /**
+     * Updates the station of the specified city with the provided fields.
+     * @param fields A Map containing the fields to update and their new values.
+     * @param city The name of the city in any case.
+     * @return EntityModel containing the updated CityStation with links to the corresponding operations.
+     * @throws CityStationNotFoundException if the city is not registered.
+     * @throws BadRequestBodyException if the station is blank after the update.
+     */
+    public EntityModel<CityStation> updateCity(Map<String, Object> fields, String city) {
+        CityStation updatedCity = Updater.updateEntity(findByCity(city), fields);
+        if (isBlank(updatedCity.getStation())) {
+            throw new BadRequestBodyException("station must be specified.");
+        }
+
+        repository.save(updatedCity);
+        eventPublisher.publishEvent(new CityStationsChangedEvent());
+        return assembler.toModel(updatedCity);
+    }
+
+    /**
+     * Removes the specified city from the registry.
+     * @param city The name of the city in any case.
+     * @throws CityStationNotFoundException if the city is not registered.
+     */
+    public void deleteCity(String city) {
+        repository.delete(findByCity(city));
+        eventPublisher.publishEvent(new CityStationsChangedEvent());
+    }
+
+    private CityStation findByCity(String city) {
+        return repository.findByCity(CityStations.normalize(city))
+                .orElseThrow(() -> new CityStationNotFoundException(city));
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -1,22 +1,26 @@
 package com.artjomkuznetsov.deliveryfee.services;
 
+import com.artjomkuznetsov.deliveryfee.events.FeeRulesChangedEvent;
 import com.artjomkuznetsov.deliveryfee.exceptions.BadRequestBodyException;
 import com.artjomkuznetsov.deliveryfee.utils.Updater;
 import com.artjomkuznetsov.deliveryfee.assemblers.ExtraFeeModelAssembler;
 import com.artjomkuznetsov.deliveryfee.controllers.ExtraFeeController;
 import com.artjomkuznetsov.deliveryfee.exceptions.ExtraWeatherConditionsNotFoundException;
 import com.artjomkuznetsov.deliveryfee.models.ExtraWeatherFee;
+import com.artjomkuznetsov.deliveryfee.models.Vehicle;
 import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.AirTemperatureConditions;
 import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WeatherPhenomenonConditions;
 import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WindSpeedConditions;
 import com.artjomkuznetsov.deliveryfee.repositories.AirTemperatureConditionsRepository;
 import com.artjomkuznetsov.deliveryfee.repositories.WeatherPhenomenonConditionsRepository;
 import com.artjomkuznetsov.deliveryfee.repositories.WindSpeedConditionsRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Map;
@@ -26,18 +30,22 @@ import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
 @Service
 public class ExtraFeeService {
-    private static final List<String> NON_NEGATIVE_FIELDS = List.of("lessThanFee", "betweenFee", "snowOrSleetFee", "rainFee");
+    private static final String VEHICLE_TYPES_FIELD = "vehicleTypes";
+    static final String VEHICLE_TYPES_MESSAGE =
+            VEHICLE_TYPES_FIELD + " must be a list of the vehicle types " + String.join(", ", Vehicle.names()) + ".";
 
     private final AirTemperatureConditionsRepository airRepository;
     private final WindSpeedConditionsRepository windRepository;
     private final WeatherPhenomenonConditionsRepository phenomenonRepository;
     private final ExtraFeeModelAssembler assembler;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ExtraFeeService(AirTemperatureConditionsRepository airRepository, WindSpeedConditionsRepository windRepository, WeatherPhenomenonConditionsRepository phenomenonRepository, ExtraFeeModelAssembler assembler) {
+    public ExtraFeeService(AirTemperatureConditionsRepository airRepository, WindSpeedConditionsRepository windRepository, WeatherPhenomenonConditionsRepository phenomenonRepository, ExtraFeeModelAssembler assembler, ApplicationEventPublisher eventPublisher) {
         this.airRepository = airRepository;
         this.windRepository = windRepository;
         this.phenomenonRepository = phenomenonRepository;
         this.assembler = assembler;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -92,14 +100,17 @@ public class ExtraFeeService {
      * @param fields A Map containing the fields to update and their new values.
      * @return EntityModel indicating the success of the update operation and containing the updated air temperature conditions with links to the corresponding operations.
      * @throws ExtraWeatherConditionsNotFoundException if the air temperature conditions are not found.
-     * @throws BadRequestBodyException If the updated float value of a field in {@code NON_NEGATIVE_FIELDS} is negative.
+     * @throws BadRequestBodyException If the updated value of a fee is negative.
      * @throws BadRequestBodyException If the value of a field is not a number or not compatible with float type.
+     * @throws BadRequestBodyException If the vehicle types are not a list of known vehicle types.
      */
+    @Transactional
     public EntityModel<AirTemperatureConditions> updateAirTemperatureConditions(Map<String, Object> fields) {
         AirTemperatureConditions updatedTemperature = airRepository.findFirstBy()
                 .orElseThrow(ExtraWeatherConditionsNotFoundException::new);
 
-        airRepository.save(Updater.updateEntity(updatedTemperature, fields, NON_NEGATIVE_FIELDS));
+        airRepository.save(update(updatedTemperature, fields));
+        eventPublisher.publishEvent(new FeeRulesChangedEvent());
 
         return assembler.toModel(updatedTemperature);
     }
@@ -109,14 +120,17 @@ public class ExtraFeeService {
      * @param fields A Map containing the fields to update and their new values.
      * @return EntityModel indicating the success of the update operation and containing the updated wind speed conditions with links to the corresponding operations.
      * @throws ExtraWeatherConditionsNotFoundException if the wind speed conditions are not found.
-     * @throws BadRequestBodyException If the updated float value of a field in {@code NON_NEGATIVE_FIELDS} is negative.
+     * @throws BadRequestBodyException If the updated value of a fee is negative.
      * @throws BadRequestBodyException If the value of a field is not a number or not compatible with float type.
+     * @throws BadRequestBodyException If the vehicle types are not a list of known vehicle types.
      */
+    @Transactional
     public ResponseEntity<?> updateWindConditions(Map<String, Object> fields) {
         WindSpeedConditions updatedWind = windRepository.findFirstBy()
                 .orElseThrow(ExtraWeatherConditionsNotFoundException::new);
 
-        windRepository.save(Updater.updateEntity(updatedWind, fields, NON_NEGATIVE_FIELDS));
+        windRepository.save(update(updatedWind, fields));
+        eventPublisher.publishEvent(new FeeRulesChangedEvent());
 
         EntityModel<WindSpeedConditions> entityModel = assembler.toModel(updatedWind);
         return ResponseEntity.status(HttpStatus.OK).body(entityModel);
@@ -127,16 +141,51 @@ public class ExtraFeeService {
      * @param fields A Map containing the fields to update and their new values.
      * @return EntityModel indicating the success of the update operation and containing the updated weather phenomenon conditions with links to the corresponding operations.
      * @throws ExtraWeatherConditionsNotFoundException if the weather phenomenon conditions are not found.
-     * @throws BadRequestBodyException If the updated float value of a field in {@code NON_NEGATIVE_FIELDS} is negative.
+     * @throws BadRequestBodyException If the updated value of a fee is negative.
      * @throws BadRequestBodyException If the value of a field is not a number or not compatible with float type.
+     * @throws BadRequestBodyException If the vehicle types are not a list of known vehicle types.
      */
+    @Transactional
     public ResponseEntity<?> updatePhenomenonConditions(Map<String, Object> fields) {
         WeatherPhenomenonConditions updatedPhenomenon = phenomenonRepository.findFirstBy()
                 .orElseThrow(ExtraWeatherConditionsNotFoundException::new);
 
-        phenomenonRepository.save(Updater.updateEntity(updatedPhenomenon, fields, NON_NEGATIVE_FIELDS));
+        phenomenonRepository.save(update(updatedPhenomenon, fields));
+        eventPublisher.publishEvent(new FeeRulesChangedEvent());
 
         EntityModel<WeatherPhenomenonConditions> entityModel = assembler.toModel(updatedPhenomenon);
         return ResponseEntity.status(HttpStatus.OK).body(entityModel);
     }
+
+    /**
+     * Updates the conditions with the fields of the request. The vehicle mask can't be updated directly,
+     * it is only set from the vehicle type names, after all fields have been checked.
+     */
+    private static <T extends ExtraWeatherFee> T update(T conditions, Map<String, Object> fields) {
+        Integer vehicleMask = vehicleMaskOf(fields);
+        Updater.updateEntity(conditions, fields);
+        if (vehicleMask != null) {
+            conditions.setVehicleMask(vehicleMask);
+        }
+        return conditions;
+    }
+
+    /**
+     * @return The bitmask of the vehicle type names of the request or null if the request doesn't contain them.
+     * @throws BadRequestBodyException If the vehicle types are not a list of known vehicle types.
+     */
+    private static Integer vehicleMaskOf(Map<String, Object> fields) {
+        if (!fields.containsKey(VEHICLE_TYPES_FIELD)) {
+            return null;
+        }
+        Object vehicleTypes = fields.get(VEHICLE_TYPES_FIELD);
+        if (!(vehicleTypes instanceof List<?> names) || !names.stream().allMatch(String.class::isInstance)) {
+            throw new BadRequestBodyException(VEHICLE_TYPES_MESSAGE);
+        }
+        try {
+            return Vehicle.maskOfIgnoringCase(names.stream().map(String.class::cast).toList());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestBodyException(VEHICLE_TYPES_MESSAGE);
+        }
+    }
 }
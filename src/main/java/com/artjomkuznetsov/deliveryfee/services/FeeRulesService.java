@@ -0,0 +1,187 @@
+package com.artjomkuznetsov.deliveryfee.services;
+
+import com.artjomkuznetsov.deliveryfee.cache.CityStations;
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeRulesDocument;
+import com.artjomkuznetsov.deliveryfee.events.FeeRulesChangedEvent;
+import com.artjomkuznetsov.deliveryfee.exceptions.BadRequestBodyException;
+import com.artjomkuznetsov.deliveryfee.exceptions.ExtraWeatherConditionsNotFoundException;
+import com.artjomkuznetsov.deliveryfee.models.FeeRuleVersion;
+import com.artjomkuznetsov.deliveryfee.models.RegionalBaseFee;
+import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.AirTemperatureConditions;
+import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WeatherPhenomenonConditions;
+import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WindSpeedConditions;
+import com.artjomkuznetsov.deliveryfee.repositories.AirTemperatureConditionsRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.FeeRuleVersionRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.RegionalBaseFeeRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.WeatherPhenomenonConditionsRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.WindSpeedConditionsRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Exports and imports all fee rules at once. An import replaces the rules in one transaction,
+ * so the fee calculation never sees a part of the new rules together with a part of the old ones.
+ * Every change of the rules is recorded as a {@link FeeRuleVersion}, so that historical quotes use the rules
+ * that were in force at their time.
+ */
+@Service
+public class FeeRulesService {
+    private final RegionalBaseFeeRepository baseFeeRepository;
+    private final AirTemperatureConditionsRepository airRepository;
+    private final WindSpeedConditionsRepository windRepository;
+    private final WeatherPhenomenonConditionsRepository phenomenonRepository;
+    private final FeeRuleVersionRepository versionRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public FeeRulesService(RegionalBaseFeeRepository baseFeeRepository, AirTemperatureConditionsRepository airRepository,
+                           WindSpeedConditionsRepository windRepository,
+                           WeatherPhenomenonConditionsRepository phenomenonRepository,
+                           FeeRuleVersionRepository versionRepository, ObjectMapper objectMapper,
+                           ApplicationEventPublisher eventPublisher) {
+        this.baseFeeRepository = baseFeeRepository;
+        this.airRepository = airRepository;
+        this.windRepository = windRepository;
+        this.phenomenonRepository = phenomenonRepository;
+        this.versionRepository = versionRepository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * @return The current fee rules.
+     * @throws ExtraWeatherConditionsNotFoundException if one of the extra weather conditions is not found.
+     */
+    @Transactional(readOnly = true)
+    public FeeRulesDocument exportRules() {
+        return new FeeRulesDocument(FeeRulesDocument.VERSION, Instant.now(), baseFeeRepository.findAll(),
+                airRepository.findFirstBy().orElseThrow(ExtraWeatherConditionsNotFoundException::new),
+                windRepository.findFirstBy().orElseThrow(ExtraWeatherConditionsNotFoundException::new),
+                phenomenonRepository.findFirstBy().orElseThrow(ExtraWeatherConditionsNotFoundException::new));
+    }
+
+    /**
+     * Replaces all fee rules by the rules of the document. The base fees are matched by city: the fees of listed cities
+     * are updated or created, the base fees of cities that aren't listed are deleted. The whole document is validated
+     * before anything is written and a single {@link FeeRulesChangedEvent} is published after the commit.
+     * @param document The fee rules to import.
+     * @return The imported fee rules.
+     * @throws BadRequestBodyException if the version isn't supported, a part of the document is missing,
+     * a city is blank or listed more than once, a fee is negative or a vehicle type is unknown.
+     */
+    @Transactional
+    public FeeRulesDocument importRules(FeeRulesDocument document) {
+        validate(document);
+
+        Map<String, RegionalBaseFee> existing = new HashMap<>();
+        baseFeeRepository.findAll().forEach(baseFee -> existing.put(baseFee.getCity(), baseFee));
+        for (RegionalBaseFee baseFee : document.baseFees()) {
+            baseFee.setCity(CityStations.normalize(baseFee.getCity().strip()));
+            RegionalBaseFee current = existing.remove(baseFee.getCity());
+            baseFee.setId(current != null ? current.getId() : 0);
+        }
+        baseFeeRepository.deleteAllInBatch(existing.values());
+        List<RegionalBaseFee> baseFees = baseFeeRepository.saveAll(document.baseFees());
+
+        AirTemperatureConditions air = document.airTemperatureConditions();
+        air.setId(airRepository.findFirstBy().map(AirTemperatureConditions::getId).orElse(0));
+        WindSpeedConditions wind = document.windSpeedConditions();
+        wind.setId(windRepository.findFirstBy().map(WindSpeedConditions::getId).orElse(0));
+        WeatherPhenomenonConditions phenomenon = document.phenomenonConditions();
+        phenomenon.setId(phenomenonRepository.findFirstBy().map(WeatherPhenomenonConditions::getId).orElse(0));
+
+        FeeRulesDocument imported = new FeeRulesDocument(FeeRulesDocument.VERSION, document.exportedAt(), baseFees,
+                airRepository.save(air), windRepository.save(wind), phenomenonRepository.save(phenomenon));
+        eventPublisher.publishEvent(new FeeRulesChangedEvent());
+        return imported;
+    }
+
+    /**
+     * Records the rules as a version in force from now on. The version is written in the transaction that has changed
+     * the rules, so a change is never committed without its version.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onFeeRulesChanged(FeeRulesChangedEvent event) {
+        recordVersion(Instant.now());
+    }
+
+    /**
+     * Records the rules found at startup as in force since ever if no version has been recorded yet,
+     * so that quotes from before the first recorded change use the rules that were in force then.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void recordInitialVersion() {
+        if (versionRepository.count() == 0) {
+            recordVersion(Instant.EPOCH);
+        }
+    }
+
+    private void recordVersion(Instant effectiveFrom) {
+        FeeRulesDocument rules = new FeeRulesDocument(FeeRulesDocument.VERSION, effectiveFrom, baseFeeRepository.findAll(),
+                airRepository.findFirstBy().orElse(null), windRepository.findFirstBy().orElse(null),
+                phenomenonRepository.findFirstBy().orElse(null));
+        try {
+            versionRepository.save(new FeeRuleVersion(effectiveFrom.toEpochMilli(), objectMapper.writeValueAsString(rules)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("The fee rules could not be written.", e);
+        }
+    }
+
+    private static void validate(FeeRulesDocument document) {
+        if (document.version() != FeeRulesDocument.VERSION) {
+            throw new BadRequestBodyException("version must be " + FeeRulesDocument.VERSION + ".");
+        }
+        if (document.baseFees() == null || document.airTemperatureConditions() == null
+                || document.windSpeedConditions() == null || document.phenomenonConditions() == null) {
+            throw new BadRequestBodyException(
+                    "baseFees, airTemperatureConditions, windSpeedConditions and phenomenonConditions must be specified.");
+        }
+
+        Set<String> cities = new HashSet<>();
+        for (RegionalBaseFee baseFee : document.baseFees()) {
+            if (baseFee == null || baseFee.getCity() == null || baseFee.getCity().isBlank()) {
+                throw new BadRequestBodyException("city must be specified.");
+            }
+            String city = CityStations.normalize(baseFee.getCity().strip());
+            if (!cities.add(city)) {
+                throw new BadRequestBodyException("Regional base fee for city " + city + " is listed more than once.");
+            }
+            checkFees(baseFee.getCarFee(), baseFee.getBikeFee(), baseFee.getScooterFee());
+        }
+
+        AirTemperatureConditions air = document.airTemperatureConditions();
+        WeatherPhenomenonConditions phenomenon = document.phenomenonConditions();
+        checkFees(air.getLessThanFee(), air.getBetweenFee(), document.windSpeedConditions().getBetweenFee(),
+                phenomenon.getSnowOrSleetFee(), phenomenon.getRainFee());
+        if (air.hasInvalidVehicleTypes() || document.windSpeedConditions().hasInvalidVehicleTypes()
+                || phenomenon.hasInvalidVehicleTypes()) {
+            throw new BadRequestBodyException(ExtraFeeService.VEHICLE_TYPES_MESSAGE);
+        }
+        if (phenomenon.getForbiddenPhenomenons() == null) {
+            throw new BadRequestBodyException("forbiddenPhenomenons must be specified.");
+        }
+    }
+
+    private static void checkFees(float... fees) {
+        for (float fee : fees) {
+            if (fee < 0) {
+                throw new BadRequestBodyException("Fees cannot be negative.");
+            }
+        }
+    }
+}
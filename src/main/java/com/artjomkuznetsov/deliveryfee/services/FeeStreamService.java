@@ -0,0 +1,335 @@
+package com.artjomkuznetsov.deliveryfee.services;
+
+import com.artjomkuznetsov.deliveryfee.cache.FeeMatrix;
+import com.artjomkuznetsov.deliveryfee.cache.FeeRuleCache;
+import com.artjomkuznetsov.deliveryfee.cache.StationRegistry;
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeQuoteResult;
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeUpdate;
+import com.artjomkuznetsov.deliveryfee.events.CityStationsChangedEvent;
+import com.artjomkuznetsov.deliveryfee.events.FeeRulesChangedEvent;
+import com.artjomkuznetsov.deliveryfee.events.WeatherDataIngestedEvent;
+import com.artjomkuznetsov.deliveryfee.metrics.FeeMetrics;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Pushes the fees of every city and vehicle to the subscribers of the fee stream whenever they change.
+ * A subscriber first receives all current fees and afterwards only the fees that have changed, each batch as one
+ * {@value #EVENT_NAME} event with a JSON array of {@link FeeUpdate}s.
+ * <p>
+ * Subscribers don't hold a thread while they wait. The changes are computed on one broadcaster thread and serialized
+ * once per filter, however many subscribers share it. The events are then queued per subscriber and sent by a sender
+ * task of the subscriber, so a subscriber receives them in order and a client that stops reading only blocks its
+ * own sends. The senders are platform threads, because a blocked send holds the monitor of the emitter and would pin
+ * the carrier of a virtual thread. There are at most {@code fee.stream.sender-threads} of them, a subscriber whose
+ * sender task can't start because all of them are busy is dropped, as is a subscriber with more than
+ * {@code fee.stream.max-pending-events} unsent events. The emitter of a dropped subscriber is completed by its own
+ * sender task once the send in progress returns, so a stalled client holds at most one thread.
+ */
+@Service
+public class FeeStreamService {
+    static final String EVENT_NAME = "fees";
+
+    private static final Logger log = LoggerFactory.getLogger(FeeStreamService.class);
+
+    private final CalculationService calculationService;
+    private final ObjectMapper objectMapper;
+    private final Supplier<SseEmitter> emitterFactory;
+    private final int maxPendingEvents;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService broadcaster =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("fee-stream").factory());
+    private final ExecutorService senders;
+
+    /**
+     * The matrix the last changes were computed from. Only accessed by the broadcaster thread.
+     */
+    private FeeMatrix broadcastMatrix;
+
+    @Autowired
+    public FeeStreamService(CalculationService calculationService, ObjectMapper objectMapper, FeeMetrics feeMetrics,
+                            @Value("${fee.stream.timeout:30m}") Duration timeout,
+                            @Value("${fee.stream.max-pending-events:16}") int maxPendingEvents,
+                            @Value("${fee.stream.sender-threads:32}") int senderThreads) {
+        this(calculationService, objectMapper, feeMetrics, () -> new SseEmitter(timeout.toMillis()), maxPendingEvents,
+                senderThreads);
+    }
+
+    FeeStreamService(CalculationService calculationService, ObjectMapper objectMapper, FeeMetrics feeMetrics,
+                     Supplier<SseEmitter> emitterFactory, int maxPendingEvents, int senderThreads) {
+        this.calculationService = calculationService;
+        this.objectMapper = objectMapper;
+        this.emitterFactory = emitterFactory;
+        this.maxPendingEvents = maxPendingEvents;
+        // Without a queue, a task is rejected instead of waiting behind the sends of stalled clients.
+        this.senders = new ThreadPoolExecutor(0, senderThreads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                Thread.ofPlatform().name("fee-stream-send-", 0).daemon().factory());
+        feeMetrics.registerStreamSubscribers(subscribers);
+    }
+
+    /**
+     * A subscriber of the stream, optionally only interested in one city or vehicle.
+     * Its events are sent by at most one sender task at a time, which runs until the queue of the subscriber is empty
+     * or the subscriber has been dropped.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final String city;
+        private final String vehicle;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pending;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private final AtomicReference<Exception> dropReason = new AtomicReference<>();
+
+        /**
+         * @param city The city in lower case or null for all cities.
+         * @param vehicle The vehicle type in lower case or null for all vehicles.
+         */
+        Subscriber(SseEmitter emitter, String city, String vehicle) {
+            this.emitter = emitter;
+            this.city = city;
+            this.vehicle = vehicle;
+            this.pending = new ArrayBlockingQueue<>(maxPendingEvents);
+        }
+
+        boolean accepts(FeeUpdate update) {
+            return (city == null || city.equals(update.city())) && (vehicle == null || vehicle.equals(update.vehicle()));
+        }
+
+        Filter filter() {
+            return new Filter(city, vehicle);
+        }
+
+        /**
+         * Queues the event and starts a sender task if none is running. A subscriber whose queue is full is dropped.
+         */
+        void enqueue(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (!pending.offer(event)) {
+                drop(this, new IOException("The fee stream subscriber has too many unsent events."));
+                return;
+            }
+            if (sending.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::sendPending);
+                } catch (RejectedExecutionException e) {
+                    sending.set(false);
+                    drop(this, new IOException("No fee stream sender is free.", e));
+                }
+            }
+        }
+
+        /**
+         * Completes the emitter right away if no send is in progress, otherwise the sender task completes it.
+         * Completing waits for a send in progress, so the caller must not wait for it.
+         */
+        void close(Exception reason) {
+            if (!dropReason.compareAndSet(null, reason)) {
+                return;
+            }
+            pending.clear();
+            if (sending.compareAndSet(false, true)) {
+                emitter.completeWithError(reason);
+            }
+        }
+
+        private void sendPending() {
+            do {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                while (dropReason.get() == null && (event = pending.poll()) != null) {
+                    send(this, event);
+                }
+                Exception reason = dropReason.get();
+                if (reason != null) {
+                    // The flag stays set so that no sender is started again.
+                    emitter.completeWithError(reason);
+                    return;
+                }
+                sending.set(false);
+            } while ((!pending.isEmpty() || dropReason.get() != null) && sending.compareAndSet(false, true));
+        }
+    }
+
+    private record Filter(String city, String vehicle) {}
+
+    /**
+     * Subscribes to the fee stream. The emitter completes after the stream timeout, clients are expected to reconnect.
+     * @param city (Optional) The city whose fees are sent, all cities if empty.
+     * @param vehicle (Optional) The vehicle type whose fees are sent, all vehicle types if empty.
+     * @return The emitter of the subscription.
+     */
+    public SseEmitter subscribe(Optional<String> city, Optional<String> vehicle) {
+        SseEmitter emitter = emitterFactory.get();
+        Subscriber subscriber = new Subscriber(emitter,
+                city.map(String::toLowerCase).orElse(null), vehicle.map(String::toLowerCase).orElse(null));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> {
+            subscribers.remove(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(e -> subscribers.remove(subscriber));
+        broadcaster.execute(() -> {
+            broadcastChanges();
+            List<FeeUpdate> updates = changes(null, broadcastMatrix).stream().filter(subscriber::accepts).toList();
+            // Changes are only queued on this thread, so the snapshot is still queued before any change.
+            // Adding the subscriber first lets a failed send of the snapshot remove it again.
+            subscribers.add(subscriber);
+            subscriber.enqueue(serialize(updates));
+        });
+        return emitter;
+    }
+
+    @EventListener
+    public void onWeatherDataIngested(WeatherDataIngestedEvent event) {
+        broadcaster.execute(this::broadcastChanges);
+    }
+
+    /**
+     * Runs after {@link FeeRuleCache} has reloaded the rules.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFeeRulesChanged(FeeRulesChangedEvent event) {
+        broadcaster.execute(this::broadcastChanges);
+    }
+
+    /**
+     * Runs after {@link StationRegistry} has reloaded the registry.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCityStationsChanged(CityStationsChangedEvent event) {
+        broadcaster.execute(this::broadcastChanges);
+    }
+
+    /**
+     * Sends a comment to every subscriber, so that connections of clients that have gone away are detected and closed.
+     */
+    @Scheduled(fixedDelayString = "${fee.stream.heartbeat-interval:PT30S}")
+    public void sendHeartbeat() {
+        broadcaster.execute(() -> {
+            Set<ResponseBodyEmitter.DataWithMediaType> heartbeat = SseEmitter.event().comment("heartbeat").build();
+            for (Subscriber subscriber : subscribers) {
+                subscriber.enqueue(heartbeat);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        broadcaster.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * Sends the fees that differ from the last broadcast matrix to the subscribers interested in them.
+     */
+    private void broadcastChanges() {
+        FeeMatrix matrix = calculationService.getFeeMatrix();
+        List<FeeUpdate> updates = changes(broadcastMatrix, matrix);
+        broadcastMatrix = matrix;
+        if (updates.isEmpty()) {
+            return;
+        }
+        Map<Filter, Optional<Set<ResponseBodyEmitter.DataWithMediaType>>> events = new HashMap<>();
+        for (Subscriber subscriber : subscribers) {
+            events.computeIfAbsent(subscriber.filter(), filter -> {
+                List<FeeUpdate> accepted = updates.stream().filter(subscriber::accepts).toList();
+                return accepted.isEmpty() ? Optional.empty() : Optional.of(serialize(accepted));
+            }).ifPresent(subscriber::enqueue);
+        }
+    }
+
+    /**
+     * @param previous The previously sent matrix or null if nothing has been sent.
+     * @param current The current matrix.
+     * @return The fees of the current matrix that differ from the previous one, followed by the removed cities.
+     */
+    static List<FeeUpdate> changes(FeeMatrix previous, FeeMatrix current) {
+        List<FeeUpdate> updates = new ArrayList<>();
+        for (String city : current.getCities()) {
+            for (String vehicle : current.getVehicles()) {
+                float fee = current.getFee(city, vehicle);
+                if (previous == null || Float.floatToIntBits(fee) != Float.floatToIntBits(previous.getFee(city, vehicle))) {
+                    updates.add(toUpdate(city, vehicle, fee));
+                }
+            }
+        }
+        if (previous != null) {
+            Set<String> cities = new HashSet<>(current.getCities());
+            for (String city : previous.getCities()) {
+                if (!cities.contains(city)) {
+                    for (String vehicle : previous.getVehicles()) {
+                        updates.add(new FeeUpdate(city, vehicle, FeeQuoteResult.Status.NOT_FOUND, null));
+                    }
+                }
+            }
+        }
+        return updates;
+    }
+
+    private static FeeUpdate toUpdate(String city, String vehicle, float fee) {
+        if (fee == FeeMatrix.FORBIDDEN) {
+            return new FeeUpdate(city, vehicle, FeeQuoteResult.Status.FORBIDDEN, null);
+        } else if (Float.isNaN(fee)) {
+            return new FeeUpdate(city, vehicle, FeeQuoteResult.Status.ERROR, null);
+        }
+        return new FeeUpdate(city, vehicle, FeeQuoteResult.Status.OK, fee);
+    }
+
+    /**
+     * @return The built event, which unlike its builder can be sent to many emitters.
+     */
+    private Set<ResponseBodyEmitter.DataWithMediaType> serialize(List<FeeUpdate> updates) {
+        try {
+            return SseEmitter.event().name(EVENT_NAME).data(objectMapper.writeValueAsString(updates)).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Fee updates could not be serialized.", e);
+        }
+    }
+
+    /**
+     * Sends the event. A subscriber that couldn't be sent to is removed.
+     */
+    private void send(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        try {
+            subscriber.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            drop(subscriber, e);
+        }
+    }
+
+    private void drop(Subscriber subscriber, Exception reason) {
+        log.debug("Sending to a fee stream subscriber failed, it is removed.", reason);
+        subscribers.remove(subscriber);
+        subscriber.close(reason);
+    }
+}
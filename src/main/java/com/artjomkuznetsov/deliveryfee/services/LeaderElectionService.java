@@ -0,0 +1,117 @@
+package com.artjomkuznetsov.deliveryfee.services;
+
+import com.artjomkuznetsov.deliveryfee.metrics.WeatherIngestionMetrics;
+import com.artjomkuznetsov.deliveryfee.repositories.SchedulerLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Elects one of the instances sharing the database as the leader, which alone runs the scheduled jobs.
+ * <p>
+ * The leader holds a lease in the scheduler_lease table and renews it periodically. If the leader stops renewing it,
+ * because it has died or lost the database, the lease expires and the next instance trying to acquire it takes over.
+ * An instance only considers itself the leader until the lease duration has passed since its last successful
+ * renewal minus the renewal interval, so it gives up before another instance can take over.
+ */
+@Service
+public class LeaderElectionService {
+    static final String LEASE = "scheduler";
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderElectionService.class);
+
+    private final SchedulerLeaseRepository leaseRepository;
+    private final String instanceId;
+    private final long leaseDurationNanos;
+    private final long renewIntervalNanos;
+
+    /**
+     * The time according to {@link System#nanoTime()} until which this instance is the leader.
+     */
+    private volatile long leaderUntil;
+    private volatile boolean leader;
+
+    public LeaderElectionService(SchedulerLeaseRepository leaseRepository, WeatherIngestionMetrics ingestionMetrics,
+                                 @Value("${scheduler.instance-id:}") String instanceId,
+                                 @Value("${scheduler.lease.duration:PT1M}") Duration leaseDuration,
+                                 @Value("${scheduler.lease.renew-interval:PT15S}") Duration renewInterval) {
+        if (renewInterval.compareTo(leaseDuration) >= 0) {
+            throw new IllegalArgumentException("The lease must be renewed more often than it expires.");
+        }
+        this.leaseRepository = leaseRepository;
+        this.instanceId = instanceId.isBlank() ? UUID.randomUUID().toString() : instanceId;
+        this.leaseDurationNanos = leaseDuration.toNanos();
+        this.renewIntervalNanos = renewInterval.toNanos();
+        ingestionMetrics.registerLeadership(this);
+    }
+
+    /**
+     * @return Whether this instance holds the lease and may run the scheduled jobs.
+     */
+    public boolean isLeader() {
+        return leader && System.nanoTime() - leaderUntil < 0;
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    /**
+     * Acquires or renews the lease. Runs right after startup, so that the first scheduled jobs already have a leader.
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${scheduler.lease.renew-interval:PT15S}")
+    public void renewLease() {
+        boolean wasLeader = isLeader();
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = tryAcquire();
+        } catch (DataAccessException e) {
+            log.warn("The scheduler lease could not be acquired.", e);
+            acquired = false;
+        }
+        if (acquired) {
+            // Measured from before the request, because the database may have set the expiry at any time during it.
+            leaderUntil = start + leaseDurationNanos - renewIntervalNanos;
+        }
+        leader = acquired;
+        if (acquired != wasLeader) {
+            log.info(acquired ? "Instance {} is now the leader and runs the scheduled jobs."
+                    : "Instance {} is not the leader anymore.", instanceId);
+        }
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        if (!leader) {
+            return;
+        }
+        leader = false;
+        try {
+            leaseRepository.release(LEASE, instanceId);
+        } catch (DataAccessException e) {
+            log.warn("The scheduler lease could not be released, it expires on its own.", e);
+        }
+    }
+
+    private boolean tryAcquire() {
+        long durationMillis = Duration.ofNanos(leaseDurationNanos).toMillis();
+        if (leaseRepository.acquire(LEASE, instanceId, durationMillis) == 1) {
+            return true;
+        }
+        try {
+            return leaseRepository.create(LEASE, instanceId, durationMillis) == 1;
+        } catch (DataIntegrityViolationException e) {
+            // Another instance holds the lease or has just created it.
+            return false;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.artjomkuznetsov.deliveryfee.services;
+
+import com.artjomkuznetsov.deliveryfee.metrics.WeatherRetentionMetrics;
+import com.artjomkuznetsov.deliveryfee.repositories.WeatherDataRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.WeatherDataRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Keeps the weather observations of the last days and daily rollups of the observations before them.
+ * Older rollups are deleted.
+ * <p>
+ * The expired observations are rolled up and deleted one day at a time, each day in its own transaction,
+ * so that the job never holds locks long enough to block the ingestion or the fee calculation.
+ */
+@Service
+public class RetentionService {
+    private static final Logger log = LoggerFactory.getLogger(RetentionService.class);
+    private static final long DAY_SECONDS = Duration.ofDays(1).toSeconds();
+
+    private final WeatherDataRepository weatherDataRepository;
+    private final WeatherDataRollupRepository rollupRepository;
+    private final WeatherRetentionMetrics metrics;
+    private final LeaderElectionService leaderElection;
+    private final Clock clock;
+    private final int rawDays;
+    private final int rollupDays;
+
+    @Autowired
+    public RetentionService(WeatherDataRepository weatherDataRepository, WeatherDataRollupRepository rollupRepository,
+                            WeatherRetentionMetrics metrics, LeaderElectionService leaderElection,
+                            @Value("${weather.data.retention.raw-days:90}") int rawDays,
+                            @Value("${weather.data.retention.rollup-days:730}") int rollupDays) {
+        this(weatherDataRepository, rollupRepository, metrics, leaderElection, Clock.systemUTC(), rawDays, rollupDays);
+    }
+
+    RetentionService(WeatherDataRepository weatherDataRepository, WeatherDataRollupRepository rollupRepository,
+                     WeatherRetentionMetrics metrics, LeaderElectionService leaderElection, Clock clock,
+                     int rawDays, int rollupDays) {
+        if (rawDays < 1 || rollupDays < rawDays) {
+            throw new IllegalArgumentException(
+                    "The retention of the rollups must be at least the retention of the observations, which must be at least one day.");
+        }
+        this.weatherDataRepository = weatherDataRepository;
+        this.rollupRepository = rollupRepository;
+        this.metrics = metrics;
+        this.leaderElection = leaderElection;
+        this.clock = clock;
+        this.rawDays = rawDays;
+        this.rollupDays = rollupDays;
+    }
+
+    /**
+     * Only the instance elected by the {@link LeaderElectionService} applies the retention, the others skip the run.
+     */
+    @Scheduled(cron = "#{('${weather.data.retention.cron:0 45 3 * * *}')}")
+    public void applyRetention() {
+        if (!leaderElection.isLeader()) {
+            refreshRowCounts();
+            return;
+        }
+        long start = System.nanoTime();
+        Result result = new Result();
+        boolean success = false;
+        try {
+            applyRetention(clock.instant(), result);
+            success = true;
+        } catch (DataAccessException e) {
+            log.error("Applying the weather data retention failed, it will be continued on the next run.", e);
+        } finally {
+            metrics.recordRetention(success, result.observations, result.rollups, System.nanoTime() - start);
+            refreshRowCounts();
+        }
+        log.info("Weather data retention deleted {} observations and {} rollups.", result.observations, result.rollups);
+    }
+
+    /**
+     * Counts the rows of the weather data tables on a schedule of its own,
+     * so that neither the ingestion nor the metrics scrapes wait for the table scans.
+     */
+    @Scheduled(fixedDelayString = "${weather.data.retention.row-count-interval:PT15M}")
+    public void refreshRowCounts() {
+        try {
+            metrics.recordRows(weatherDataRepository.count(), rollupRepository.count());
+        } catch (DataAccessException e) {
+            log.warn("Counting the weather data rows failed.", e);
+        }
+    }
+
+    /**
+     * Rolls up and deletes the observations made before the observation retention, starting with the oldest day.
+     * Observations made before the rollup retention are deleted without being rolled up.
+     * @param now The time the retention periods end at. They start at midnight UTC.
+     */
+    void applyRetention(Instant now, Result result) {
+        long today = startOfDay(now.getEpochSecond());
+        long rawCutoff = today - rawDays * DAY_SECONDS;
+        long rollupCutoff = today - rollupDays * DAY_SECONDS;
+
+        Long oldest;
+        long from = Long.MIN_VALUE;
+        while ((oldest = weatherDataRepository.findOldestObservationTimestamp(from)) != null && oldest < rawCutoff) {
+            long day = startOfDay(oldest);
+            long nextDay = day + DAY_SECONDS;
+            result.observations += day < rollupCutoff
+                    ? weatherDataRepository.deleteBetween(day, nextDay)
+                    : weatherDataRepository.rollUpAndDelete(day, day, nextDay);
+            // The day is done, so the next search doesn't have to look at it again.
+            from = nextDay;
+        }
+        result.rollups += rollupRepository.deleteByDayBefore(rollupCutoff);
+    }
+
+    private static long startOfDay(long epochSecond) {
+        return Math.floorDiv(epochSecond, DAY_SECONDS) * DAY_SECONDS;
+    }
+
+    static class Result {
+        int observations;
+        int rollups;
+    }
+}
@@ -1,94 +1,156 @@
 package com.artjomkuznetsov.deliveryfee.services;
 
+import com.artjomkuznetsov.deliveryfee.cache.CityStations;
+import com.artjomkuznetsov.deliveryfee.cache.LatestWeatherDataCache;
+import com.artjomkuznetsov.deliveryfee.cache.StationRegistry;
+import com.artjomkuznetsov.deliveryfee.events.WeatherDataIngestedEvent;
+import com.artjomkuznetsov.deliveryfee.exceptions.WeatherFeedException;
+import com.artjomkuznetsov.deliveryfee.metrics.WeatherIngestionMetrics;
 import com.artjomkuznetsov.deliveryfee.models.WeatherData;
 import com.artjomkuznetsov.deliveryfee.repositories.WeatherDataRepository;
+import com.artjomkuznetsov.deliveryfee.utils.WeatherObservationsParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import java.io.ByteArrayInputStream;
+import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
 
 @Service
 @EnableScheduling
 public class ScheduledService {
-    private static final String ESTONIAN_WEATHER_API_URL = "https://www.ilmateenistus.ee/ilma_andmed/xml/observations.php";
-    private static final  List<String> STATIONS = List.of("Tallinn-Harku", "Tartu-Tõravere", "Pärnu");
+    private static final Logger log = LoggerFactory.getLogger(ScheduledService.class);
 
-    private final RestTemplate restTemplate;
+    private final WeatherFeedClient weatherFeedClient;
     private final WeatherDataRepository weatherDataRepository;
+    private final LatestWeatherDataCache latestWeatherDataCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WeatherIngestionMetrics ingestionMetrics;
+    private final StationRegistry stationRegistry;
+    private final LeaderElectionService leaderElection;
+
+    private CityStations parsedStations;
+    private WeatherObservationsParser parser;
 
     @Autowired
-    public ScheduledService(RestTemplate restTemplate, WeatherDataRepository weatherDataRepository) {
-        this.restTemplate = restTemplate;
+    public ScheduledService(WeatherFeedClient weatherFeedClient, WeatherDataRepository weatherDataRepository, LatestWeatherDataCache latestWeatherDataCache,
+                            ApplicationEventPublisher eventPublisher, WeatherIngestionMetrics ingestionMetrics, StationRegistry stationRegistry,
+                            LeaderElectionService leaderElection) {
+        this.weatherFeedClient = weatherFeedClient;
         this.weatherDataRepository = weatherDataRepository;
+        this.latestWeatherDataCache = latestWeatherDataCache;
+        this.eventPublisher = eventPublisher;
+        this.ingestionMetrics = ingestionMetrics;
+        this.stationRegistry = stationRegistry;
+        this.leaderElection = leaderElection;
     }
 
     /**
      * This method retrieves weather data from the <a href="https://www.ilmateenistus.ee/ilma_andmed/xml/observations.php">Estonian weather API</a>,
-     * parses XML responses, and saves relevant observations to the database.
-     * It's scheduled to run periodically using the @Scheduled annotation with a specified cron expression.
+     * parses the XML response while it is being received, saves relevant observations to the database in one batch and publishes them as the latest weather data.
+     * A feed that hasn't changed since the last run is neither parsed nor saved.
+     * Failed requests are retried by the {@link WeatherFeedClient}, which marks the weather data as stale if they keep failing.
+     * It's scheduled by the {@link com.artjomkuznetsov.deliveryfee.config.SchedulingConfig}, by default more often around
+     * the time the next observation is expected and less often once it has arrived.
+     * Only the instance elected by the {@link LeaderElectionService} requests the weather data, the others skip the run.
      */
-    @Scheduled(cron = "#{('${weather.data.cron.expression:0 15 * * * *}')}")
     public void getWeatherDataFromAPI() {
-        String responseData = restTemplate.getForObject(ESTONIAN_WEATHER_API_URL, String.class);
-        if (responseData != null) {
-            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-            try {
-                DocumentBuilder builder = factory.newDocumentBuilder();
-                ByteArrayInputStream input = new ByteArrayInputStream(
-                        responseData.getBytes(StandardCharsets.UTF_8));
-
-                Document doc = builder.parse(input);
-                NodeList nodeList = doc.getElementsByTagName("station");
-                for (int i = 0; i < nodeList.getLength(); i++) {
-                    Node node = nodeList.item(i);
-
-                    if (node.getNodeType() == Node.ELEMENT_NODE) {
-                        Element element = (Element) node;
-                        String stationName = element.getElementsByTagName("name").item(0).getTextContent();
+        ingestionMetrics.registerFreshness(stationRegistry.current().getStations(), latestWeatherDataCache);
+        if (!leaderElection.isLeader()) {
+            log.debug("The weather data is ingested by the leader instance.");
+            ingestionMetrics.recordSkipped();
+            return;
+        }
+        long start = System.nanoTime();
+        boolean success = false;
+        int saved = 0;
+        try {
+            saved = ingestWeatherData();
+            success = true;
+        } catch (WeatherFeedException e) {
+            log.error("An error occurred while requesting or parsing weather data, the weather data is stale.", e);
+        } finally {
+            ingestionMetrics.recordIngestion(success, saved, System.nanoTime() - start);
+        }
+    }
 
-                        Long timestamp = Long.parseLong(doc.getElementsByTagName("observations").item(0)
-                                .getAttributes().getNamedItem("timestamp").getTextContent());
+    /**
+     * Instances that aren't the leader reload the latest weather data saved by the leader, so that their fees follow it.
+     */
+    @Scheduled(fixedDelayString = "${weather.data.follower-refresh-interval:PT1M}")
+    public void refreshLatestWeatherData() {
+        if (leaderElection.isLeader()) {
+            return;
+        }
+        ingestionMetrics.registerFreshness(stationRegistry.current().getStations(), latestWeatherDataCache);
+        if (latestWeatherDataCache.reload(stationRegistry.current().getStations())) {
+            eventPublisher.publishEvent(new WeatherDataIngestedEvent(0));
+        }
+    }
 
-                        if (STATIONS.contains(stationName)) {
-                            WeatherData weatherData = new WeatherData();
-                            weatherData.setStation(stationName);
-                            weatherData.setStationWMO(element.getElementsByTagName("wmocode").item(0).getTextContent());
-                            String airTemp = element.getElementsByTagName("airtemperature").item(0).getTextContent();
-                            if (!airTemp.isEmpty()) {
-                                weatherData.setAirTemperature(Float.parseFloat(airTemp));
-                            }
-                            String windSpeed = element.getElementsByTagName("windspeed").item(0).getTextContent();
-                            if (!windSpeed.isEmpty()) {
-                                weatherData.setWindSpeed(Float.parseFloat(windSpeed));
-                            }
-                            weatherData.setWeatherPhenomenon(element.getElementsByTagName("phenomenon").item(0).getTextContent());
-                            weatherData.setObservationTimestamp(timestamp);
-                            weatherDataRepository.save(weatherData);
-                        }
-                    }
+    /**
+     * Requests and saves the weather data of the stations in the registry.
+     * @return The number of saved observations.
+     */
+    private int ingestWeatherData() {
+        WeatherObservationsParser parser = parserForCurrentStations();
+        Optional<Integer> saved;
+        try {
+            saved = weatherFeedClient.fetchIfChanged(body -> {
+                try {
+                    return save(parser.parse(body));
+                } catch (XMLStreamException e) {
+                    throw new IOException("The XML document with weather data is not well-formed.", e);
                 }
-            } catch (SAXException e) {
-                System.out.println("An error occurred while parsing the XML document with weather data. Please ensure that the XML document has the correct structure and try again.");
-            } catch (IOException e) {
-                System.out.println("An error occurred while processing weather data.");
-            } catch (ParserConfigurationException e) {
-                System.out.println("An error occurred while configuring the XML parser.");
+            }).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof WeatherFeedException feedException) {
+                throw feedException;
+            }
+            throw e;
+        }
+        if (saved.isEmpty()) {
+            log.debug("The weather data hasn't changed since the last request.");
+            ingestionMetrics.recordUnchanged();
+            return 0;
+        }
+        return saved.get();
+    }
+
+    /**
+     * Creates a new parser when the registry has changed. The last feed is forgotten then,
+     * so that a newly registered station doesn't have to wait until the feed changes.
+     */
+    private synchronized WeatherObservationsParser parserForCurrentStations() {
+        CityStations current = stationRegistry.current();
+        if (current != parsedStations) {
+            if (parsedStations != null) {
+                weatherFeedClient.forgetLastResponse();
             }
+            parser = new WeatherObservationsParser(current.getStations());
+            parsedStations = current;
+        }
+        return parser;
+    }
+
+    private int save(List<WeatherData> observations) {
+        if (observations.isEmpty()) {
+            log.warn("The weather API returned no data for the tracked stations.");
+            return 0;
+        }
+        weatherDataRepository.upsertAll(observations);
+        for (WeatherData weatherData : observations) {
+            latestWeatherDataCache.publish(weatherData);
         }
+        eventPublisher.publishEvent(new WeatherDataIngestedEvent(observations.size()));
+        return observations.size();
     }
 }
@@ -0,0 +1,294 @@
+package com.artjomkuznetsov.deliveryfee.services;
+
+import com.artjomkuznetsov.deliveryfee.config.WeatherApiProperties;
+import com.artjomkuznetsov.deliveryfee.exceptions.WeatherFeedException;
+import com.artjomkuznetsov.deliveryfee.metrics.WeatherFeedMetrics;
+import com.artjomkuznetsov.deliveryfee.utils.CircuitBreaker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests the weather feed only if it has changed since the last successfully handled response.
+ * The request is conditional on the ETag and Last-Modified headers of that response. If the server sends neither,
+ * the body is hashed instead and a body with the same hash as the last one is not handled.
+ * <p>
+ * Connection failures, timeouts and server errors are retried with a jittered exponential backoff within the retry window.
+ * After too many consecutive failed attempts the circuit breaker opens and the API isn't requested until it has passed
+ * its open duration. Until a fetch succeeds again, the weather data is marked as stale.
+ */
+@Component
+public class WeatherFeedClient {
+    private static final Logger log = LoggerFactory.getLogger(WeatherFeedClient.class);
+
+    private final HttpClient httpClient;
+    private final WeatherApiProperties properties;
+    private final WeatherFeedMetrics metrics;
+    private final CircuitBreaker circuitBreaker;
+
+    private volatile String eTag;
+    private volatile String lastModified;
+    private volatile byte[] contentHash;
+    private volatile boolean stale;
+
+    @Autowired
+    public WeatherFeedClient(HttpClient httpClient, WeatherApiProperties properties, WeatherFeedMetrics metrics) {
+        this(httpClient, properties, metrics, Clock.systemUTC());
+    }
+
+    WeatherFeedClient(HttpClient httpClient, WeatherApiProperties properties, WeatherFeedMetrics metrics, Clock clock) {
+        this.httpClient = httpClient;
+        this.properties = properties;
+        this.metrics = metrics;
+        this.circuitBreaker = new CircuitBreaker(properties.failureThreshold(), properties.openDuration(), clock);
+        metrics.registerState(this);
+    }
+
+    /**
+     * Handler of a changed feed.
+     * @param <T> The result of handling the feed.
+     */
+    @FunctionalInterface
+    public interface FeedHandler<T> {
+        T handle(InputStream body) throws IOException;
+    }
+
+    /**
+     * Requests the feed and passes its body to the handler if it has changed. The handler runs on a thread of the
+     * HTTP client. The response is only remembered as the last one after the handler has completed, so a failed handler
+     * gets the same feed again next time. An IOException of the handler is retried like a failed request, because
+     * it can't be told apart from a connection lost while reading the body.
+     * @param handler The handler of the changed feed.
+     * @return The result of the handler or an empty optional if the feed hasn't changed. The future completes
+     * with a {@link WeatherFeedException} if all attempts failed, the circuit breaker is open or the handler threw
+     * an unchecked exception.
+     */
+    public <T> CompletableFuture<Optional<T>> fetchIfChanged(FeedHandler<T> handler) {
+        long start = System.nanoTime();
+        long retryDeadline = start + properties.retryWindow().toNanos();
+        return attempt(handler, 1, retryDeadline).whenComplete((result, failure) -> {
+            stale = failure != null;
+            WeatherFeedMetrics.Outcome outcome = failure != null ? WeatherFeedMetrics.Outcome.ERROR
+                    : result.isPresent() ? WeatherFeedMetrics.Outcome.CHANGED : WeatherFeedMetrics.Outcome.UNCHANGED;
+            metrics.recordFetch(outcome, System.nanoTime() - start);
+        });
+    }
+
+    /**
+     * @return Whether the last fetch failed, so the latest weather data may be outdated.
+     */
+    public boolean isStale() {
+        return stale;
+    }
+
+    /**
+     * Makes the next fetch handle the feed even if it hasn't changed.
+     */
+    public void forgetLastResponse() {
+        remember(null, null, null);
+    }
+
+    public CircuitBreaker.State getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private <T> CompletableFuture<Optional<T>> attempt(FeedHandler<T> handler, int attempt, long retryDeadline) {
+        if (!circuitBreaker.tryAcquire()) {
+            return CompletableFuture.failedFuture(new WeatherFeedException(
+                    "The weather API is not requested, because too many requests to it have failed."));
+        }
+        return httpClient.sendAsync(request(), HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> handle(response, handler))
+                .handle((result, failure) -> {
+                    Throwable cause = unwrap(failure);
+                    if (cause == null) {
+                        circuitBreaker.onSuccess();
+                        return CompletableFuture.completedFuture(result);
+                    }
+                    if (!isRetryable(cause)) {
+                        // The API has responded, only the response couldn't be handled.
+                        circuitBreaker.onSuccess();
+                        return CompletableFuture.<Optional<T>>failedFuture(asFeedException(cause));
+                    }
+                    circuitBreaker.onFailure();
+                    return retry(handler, attempt, retryDeadline, cause);
+                })
+                .thenCompose(future -> future);
+    }
+
+    private <T> CompletableFuture<Optional<T>> retry(FeedHandler<T> handler, int attempt, long retryDeadline, Throwable cause) {
+        long delayNanos = backoffNanos(attempt);
+        if (attempt >= properties.maxAttempts() || System.nanoTime() + delayNanos > retryDeadline) {
+            return CompletableFuture.failedFuture(asFeedException(cause));
+        }
+        log.warn("Request {} to the weather API failed, retrying in {} ms: {}", attempt,
+                TimeUnit.NANOSECONDS.toMillis(delayNanos), cause.toString());
+        metrics.recordRetry();
+        return CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS))
+                .thenCompose(ignored -> attempt(handler, attempt + 1, retryDeadline));
+    }
+
+    /**
+     * The delay before a retry is random between zero and an upper bound that doubles with every attempt,
+     * so that clients failing at the same time don't retry at the same time.
+     */
+    private long backoffNanos(int attempt) {
+        long bound = Math.min(properties.maxBackoff().toNanos(),
+                properties.initialBackoff().toNanos() << Math.min(attempt - 1, 30));
+        return bound > 0 ? ThreadLocalRandom.current().nextLong(bound + 1) : 0;
+    }
+
+    private HttpRequest request() {
+        HttpRequest.Builder request = HttpRequest.newBuilder(properties.url())
+                .timeout(properties.readTimeout())
+                .GET();
+        if (eTag != null) {
+            request.header("If-None-Match", eTag);
+        }
+        if (lastModified != null) {
+            request.header("If-Modified-Since", lastModified);
+        }
+        return request.build();
+    }
+
+    private <T> Optional<T> handle(HttpResponse<InputStream> response, FeedHandler<T> handler) {
+        try (InputStream body = response.body()) {
+            int status = response.statusCode();
+            if (status == 304) {
+                return Optional.empty();
+            }
+            if (status < 200 || status >= 300) {
+                throw new UnexpectedStatusException(status);
+            }
+            return readBody(body, () -> handleChanged(response, body, handler));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private <T> Optional<T> handleChanged(HttpResponse<InputStream> response, InputStream body, FeedHandler<T> handler)
+            throws IOException {
+        String responseETag = response.headers().firstValue("ETag").orElse(null);
+        String responseLastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        if (responseETag != null || responseLastModified != null) {
+            if (isSameVersion(responseETag, responseLastModified)) {
+                return Optional.empty();
+            }
+            T handled = handler.handle(body);
+            remember(responseETag, responseLastModified, null);
+            return Optional.of(handled);
+        }
+
+        byte[] bytes = body.readAllBytes();
+        byte[] hash = sha256(bytes);
+        if (Arrays.equals(hash, contentHash)) {
+            return Optional.empty();
+        }
+        T handled = handler.handle(new ByteArrayInputStream(bytes));
+        remember(null, null, hash);
+        return Optional.of(handled);
+    }
+
+    /**
+     * The request timeout of the HTTP client only covers the response headers. The body is closed if it's still
+     * being read after the read timeout, so that a stalled upstream can't block the handler indefinitely.
+     */
+    private <T> Optional<T> readBody(InputStream body, BodyReader<T> reader) throws IOException {
+        CompletableFuture<Void> timeout = CompletableFuture.runAsync(() -> closeQuietly(body),
+                CompletableFuture.delayedExecutor(properties.readTimeout().toNanos(), TimeUnit.NANOSECONDS));
+        try {
+            return reader.read();
+        } finally {
+            timeout.cancel(false);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BodyReader<T> {
+        Optional<T> read() throws IOException;
+    }
+
+    /**
+     * Servers that ignore conditional requests still send the same validators for an unchanged feed.
+     */
+    private boolean isSameVersion(String responseETag, String responseLastModified) {
+        if (responseETag != null) {
+            return responseETag.equals(eTag);
+        }
+        return responseLastModified.equals(lastModified);
+    }
+
+    private void remember(String eTag, String lastModified, byte[] contentHash) {
+        this.eTag = eTag;
+        this.lastModified = lastModified;
+        this.contentHash = contentHash;
+    }
+
+    private static boolean isRetryable(Throwable cause) {
+        if (cause instanceof UnexpectedStatusException e) {
+            return e.status >= 500 || e.status == 429;
+        }
+        return cause instanceof IOException;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        while ((failure instanceof CompletionException || failure instanceof UncheckedIOException)
+                && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        return failure;
+    }
+
+    private static WeatherFeedException asFeedException(Throwable cause) {
+        if (cause instanceof WeatherFeedException e) {
+            return e;
+        }
+        if (cause instanceof UnexpectedStatusException || cause instanceof IOException) {
+            return new WeatherFeedException("The weather API could not be requested.", cause);
+        }
+        return new WeatherFeedException("The weather feed could not be handled.", cause);
+    }
+
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException e) {
+            log.debug("Closing the body of a timed out weather API response failed.", e);
+        }
+    }
+
+    private static byte[] sha256(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM.", e);
+        }
+    }
+
+    private static class UnexpectedStatusException extends RuntimeException {
+        private final int status;
+
+        UnexpectedStatusException(int status) {
+            super("The weather API responded with status " + status + ".");
+            this.status = status;
+        }
+    }
+}
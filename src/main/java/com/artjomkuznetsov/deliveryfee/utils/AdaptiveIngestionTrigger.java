@@ -0,0 +1,65 @@
+package com.artjomkuznetsov.deliveryfee.utils;
+
+import com.artjomkuznetsov.deliveryfee.config.WeatherScheduleProperties;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+
+import java.time.Instant;
+import java.util.OptionalLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Schedules the weather data ingestion around the time the next observation is expected to be published.
+ * <ul>
+ *     <li>The first run starts immediately.</li>
+ *     <li>After a failed fetch, the next run starts after the retry delay.</li>
+ *     <li>Once an observation has arrived, the ingestion backs off until the lead time before the next one is due.</li>
+ *     <li>While an observation is due but hasn't arrived yet, the feed is polled at the poll interval.</li>
+ * </ul>
+ * No run is ever further than the maximum delay after the previous one.
+ */
+public class AdaptiveIngestionTrigger implements Trigger {
+    private final WeatherScheduleProperties properties;
+    private final Supplier<OptionalLong> latestObservationTimestamp;
+    private final BooleanSupplier lastFetchFailed;
+
+    /**
+     * @param properties The schedule settings.
+     * @param latestObservationTimestamp Supplies the epoch second of the latest ingested observation, if there is one.
+     * @param lastFetchFailed Supplies whether the last fetch of the feed failed.
+     */
+    public AdaptiveIngestionTrigger(WeatherScheduleProperties properties, Supplier<OptionalLong> latestObservationTimestamp,
+                                    BooleanSupplier lastFetchFailed) {
+        this.properties = properties;
+        this.latestObservationTimestamp = latestObservationTimestamp;
+        this.lastFetchFailed = lastFetchFailed;
+    }
+
+    @Override
+    public Instant nextExecution(TriggerContext triggerContext) {
+        Instant now = triggerContext.getClock().instant();
+        if (triggerContext.lastCompletion() == null) {
+            return now;
+        }
+        Instant latest = now.plus(properties.maxDelay());
+        if (lastFetchFailed.getAsBoolean()) {
+            return earliest(now.plus(properties.retryDelay()), latest);
+        }
+        OptionalLong observed = latestObservationTimestamp.get();
+        if (observed.isEmpty()) {
+            return earliest(now.plus(properties.pollInterval()), latest);
+        }
+        Instant pollFrom = Instant.ofEpochSecond(observed.getAsLong())
+                .plus(properties.observationInterval())
+                .minus(properties.leadTime());
+        if (now.isBefore(pollFrom)) {
+            return earliest(pollFrom, latest);
+        }
+        return earliest(now.plus(properties.pollInterval()), latest);
+    }
+
+    private static Instant earliest(Instant first, Instant second) {
+        return first.isBefore(second) ? first : second;
+    }
+}
@@ -0,0 +1,81 @@
+package com.artjomkuznetsov.deliveryfee.utils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Circuit breaker that stops calls to an upstream after a number of consecutive failures.
+ * While it is open, calls are rejected until the open duration has passed. Then a single trial call is let through:
+ * the circuit closes if it succeeds and opens again if it fails.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private Instant openedAt;
+    private boolean trialInFlight;
+
+    /**
+     * @param failureThreshold The number of consecutive failures that opens the circuit.
+     * @param openDuration How long the circuit stays open before a trial call is let through.
+     * @param clock The clock the open duration is measured with.
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("The failure threshold must be at least 1.");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * Checks whether a call may be made. Every permitted call must be followed by
+     * {@link #onSuccess()} or {@link #onFailure()}.
+     * @return Whether the call is permitted.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (clock.instant().isBefore(openedAt.plus(openDuration))) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return false;
+            }
+            trialInFlight = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        trialInFlight = false;
+    }
+
+    public synchronized void onFailure() {
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.instant();
+            failures = 0;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -2,60 +2,187 @@ package com.artjomkuznetsov.deliveryfee.utils;
 
 
 import com.artjomkuznetsov.deliveryfee.exceptions.BadRequestBodyException;
+import jakarta.persistence.Id;
+import jakarta.validation.constraints.PositiveOrZero;
 import org.springframework.stereotype.Component;
-import org.springframework.util.ReflectionUtils;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
-import java.util.List;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 @Component
 public class Updater {
+    /**
+     * Fields that are never updated: the city identifies a base fee and the vehicle mask is only set from vehicle type names.
+     */
+    private static final Set<String> EXCLUDED_FIELDS = Set.of("city", "vehicleMask");
+    private static final ClassValue<Map<String, Accessor>> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected Map<String, Accessor> computeValue(Class<?> type) {
+            return accessorsOf(type);
+        }
+    };
+
     /**
      * Updates the specified entity object with the given fields.
      * This method allows you to update a {@code T} generic type object with the supplied fields.
-     * Fields are represented as {@code Map<String, Object>}, where the key is the field name.
-     * to be updated and the value is the new value for that field.
-     * Additionally, this method provides the ability to specify a list of non-negative fields. If the
-     * updated value of a field is of type {@code float} and is present in the non-negative fields list,
-     * the method will check if the new value is non-negative.
-     * Note: The fields "id" and "city" are excluded from being updated.
+     * Fields are represented as {@code Map<String, Object>}, where the key is the field name
+     * to be updated and the value is the new value for that field. Unknown field names are ignored.
+     * The value of a {@code float} field annotated with {@link PositiveOrZero} must not be negative.
+     * All values are checked before the first one is set, so the entity is left unchanged if one of them is invalid.
+     * Note: The id and the "city" and "vehicleMask" fields are excluded from being updated.
+     * <p>
+     * The setters of the fields are looked up once per entity class and reused for every update.
      *
-     * @param <T>               The type of the entity to be updated.
-     * @param entity            The entity object to be updated.
-     * @param fields            A map containing the field names as keys and their new values as values.
-     * @param nonNegativeFields A list of field names that should have non-negative values if of type {@code float}.
+     * @param <T>    The type of the entity to be updated.
+     * @param entity The entity object to be updated.
+     * @param fields A map containing the field names as keys and their new values as values.
      * @return The updated entity object.
-     * @throws BadRequestBodyException If the updated float value of a field in {@code nonNegativeFields} is negative.
-     * @throws BadRequestBodyException If the value of a field is not a number or not compatible with float type.
+     * @throws BadRequestBodyException If the updated float value of a field annotated with {@link PositiveOrZero} is negative.
+     * @throws BadRequestBodyException If the value of a field is not a number or not compatible with the type of the field.
      */
-    public static <T> T updateEntity(T entity, Map<String, Object> fields, List<String> nonNegativeFields) {
-        fields.forEach((key, value) -> {
-            Field field = ReflectionUtils.findField(entity.getClass(), key);
-            if (field != null) {
-                if (!field.getName().equals("id") && !field.getName().equals("city")) {
-                    field.setAccessible(true);
-                    if (field.getType().equals(float.class)) {
-                        checkFloatValue(field, value, nonNegativeFields);
-                        value = ((Number) value).floatValue();
-                    }
-                    ReflectionUtils.setField(field, entity, value);
-                    field.setAccessible(false);
-                }
+    public static <T> T updateEntity(T entity, Map<String, Object> fields) {
+        Map<String, Accessor> accessors = ACCESSORS.get(entity.getClass());
+        Accessor[] updated = new Accessor[fields.size()];
+        Object[] values = new Object[fields.size()];
+        int count = 0;
+        for (Map.Entry<String, Object> field : fields.entrySet()) {
+            Accessor accessor = accessors.get(field.getKey());
+            if (accessor != null) {
+                updated[count] = accessor;
+                values[count++] = accessor.check(field.getValue());
             }
-        });
+        }
+        for (int i = 0; i < count; i++) {
+            updated[i].set(entity, values[i]);
+        }
         return entity;
     }
 
-    private static void checkFloatValue(Field field, Object value, List<String> nonNegativeFields) {
-        if (value instanceof Number) {
-            if (nonNegativeFields.contains(field.getName()) && ((Number) value).floatValue() < 0) {
-                field.setAccessible(false);
-                throw new BadRequestBodyException(field.getName() + " cannot be negative.");
+    private static Map<String, Accessor> accessorsOf(Class<?> type) {
+        Map<String, Accessor> accessors = new HashMap<>();
+        for (Class<?> declaring = type; declaring != Object.class; declaring = declaring.getSuperclass()) {
+            MethodHandles.Lookup lookup = lookupIn(declaring);
+            for (Field field : declaring.getDeclaredFields()) {
+                // A field of a subclass hides a field of the same name in its superclass.
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic() || accessors.containsKey(field.getName())
+                        || field.isAnnotationPresent(Id.class) || EXCLUDED_FIELDS.contains(field.getName())) {
+                    continue;
+                }
+                accessors.put(field.getName(), accessorOf(lookup, field));
+            }
+        }
+        return Map.copyOf(accessors);
+    }
+
+    private static MethodHandles.Lookup lookupIn(Class<?> type) {
+        try {
+            return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("The fields of " + type.getName() + " cannot be accessed.", e);
+        }
+    }
+
+    private static Accessor accessorOf(MethodHandles.Lookup lookup, Field field) {
+        try {
+            MethodHandle setter = lookup.unreflectSetter(field);
+            if (field.getType() == float.class) {
+                return new FloatAccessor(field.getName(), field.isAnnotationPresent(PositiveOrZero.class),
+                        setter.asType(MethodType.methodType(void.class, Object.class, float.class)));
+            }
+            return new ObjectAccessor(field.getName(), field.getType(),
+                    setter.asType(MethodType.methodType(void.class, Object.class, Object.class)));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("The field " + field.getName() + " cannot be accessed.", e);
+        }
+    }
+
+    /**
+     * Sets one field of the entities of a class.
+     */
+    private abstract static class Accessor {
+        final String name;
+        final MethodHandle setter;
+
+        Accessor(String name, MethodHandle setter) {
+            this.name = name;
+            this.setter = setter;
+        }
+
+        /**
+         * @return The value to set.
+         * @throws BadRequestBodyException If the value can't be set.
+         */
+        abstract Object check(Object value);
+
+        void set(Object entity, Object value) {
+            try {
+                invoke(entity, value);
+            } catch (Throwable e) {
+                throw new IllegalStateException("The field " + name + " could not be set.", e);
             }
-        } else if (value instanceof String) {
-            field.setAccessible(false);
-            throw new BadRequestBodyException(field.getName() + " must be a number.");
+        }
+
+        abstract void invoke(Object entity, Object value) throws Throwable;
+    }
+
+    /**
+     * Sets a field of a reference or non-float primitive type, the setter takes the value as an object.
+     */
+    private static class ObjectAccessor extends Accessor {
+        private final Class<?> boxedType;
+        private final boolean primitive;
+
+        ObjectAccessor(String name, Class<?> type, MethodHandle setter) {
+            super(name, setter);
+            this.boxedType = MethodType.methodType(type).wrap().returnType();
+            this.primitive = type.isPrimitive();
+        }
+
+        @Override
+        Object check(Object value) {
+            if (value == null ? primitive : !boxedType.isInstance(value)) {
+                throw new BadRequestBodyException(name + " has an invalid value.");
+            }
+            return value;
+        }
+
+        @Override
+        void invoke(Object entity, Object value) throws Throwable {
+            setter.invokeExact(entity, value);
+        }
+    }
+
+    /**
+     * Sets a float field from any number, the setter takes the primitive value.
+     */
+    private static class FloatAccessor extends Accessor {
+        private final boolean nonNegative;
+
+        FloatAccessor(String name, boolean nonNegative, MethodHandle setter) {
+            super(name, setter);
+            this.nonNegative = nonNegative;
+        }
+
+        @Override
+        Object check(Object value) {
+            if (!(value instanceof Number number)) {
+                throw new BadRequestBodyException(name + " must be a number.");
+            }
+            if (nonNegative && number.floatValue() < 0) {
+                throw new BadRequestBodyException(name + " cannot be negative.");
+            }
+            return number;
+        }
+
+        @Override
+        void invoke(Object entity, Object value) throws Throwable {
+            setter.invokeExact(entity, ((Number) value).floatValue());
         }
     }
 }
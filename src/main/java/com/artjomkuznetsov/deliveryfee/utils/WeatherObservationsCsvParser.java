@@ -0,0 +1,75 @@
+package com.artjomkuznetsov.deliveryfee.utils;
+
+import com.artjomkuznetsov.deliveryfee.models.WeatherData;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parser of archived observations in CSV format. Every line holds one observation with the columns
+ * {@code station,wmocode,timestamp,airtemperature,windspeed,phenomenon}, named like the elements of the observations document.
+ * A first line starting with {@code station} is treated as header. Only the stations passed to the constructor are read.
+ */
+public class WeatherObservationsCsvParser {
+    private static final int COLUMNS = 6;
+
+    private final Set<String> stations;
+
+    /**
+     * @param stations The names of the stations to read.
+     */
+    public WeatherObservationsCsvParser(Collection<String> stations) {
+        this.stations = Set.copyOf(stations);
+    }
+
+    /**
+     * Reads the observations of the stations from the UTF-8 encoded input. The stream is not closed.
+     * @param input The observations in CSV format.
+     * @return The observations of the stations in input order.
+     * @throws IOException if the input can't be read or a line has too few columns or an invalid number.
+     */
+    public List<WeatherData> parse(InputStream input) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<WeatherData> observations = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || lineNumber == 1 && line.startsWith("station")) {
+                continue;
+            }
+            String[] columns = line.split(",", COLUMNS);
+            if (columns.length < COLUMNS) {
+                throw new IOException("Line " + lineNumber + " has less than " + COLUMNS + " columns.");
+            }
+            String station = columns[0].strip();
+            if (!stations.contains(station)) {
+                continue;
+            }
+            try {
+                WeatherData weatherData = new WeatherData();
+                weatherData.setStation(station);
+                weatherData.setStationWMO(columns[1].strip());
+                weatherData.setObservationTimestamp(Long.valueOf(columns[2].strip()));
+                if (!columns[3].isBlank()) {
+                    weatherData.setAirTemperature(Float.parseFloat(columns[3].strip()));
+                }
+                if (!columns[4].isBlank()) {
+                    weatherData.setWindSpeed(Float.parseFloat(columns[4].strip()));
+                }
+                weatherData.setWeatherPhenomenon(columns[5].strip());
+                observations.add(weatherData);
+            } catch (NumberFormatException e) {
+                throw new IOException("Line " + lineNumber + " contains an invalid number.", e);
+            }
+        }
+        return observations;
+    }
+}
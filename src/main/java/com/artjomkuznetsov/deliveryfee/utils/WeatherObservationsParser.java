@@ -0,0 +1,158 @@
+package com.artjomkuznetsov.deliveryfee.utils;
+
+import com.artjomkuznetsov.deliveryfee.models.WeatherData;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming parser of the observations document of the
+ * <a href="https://www.ilmateenistus.ee/ilma_andmed/xml/observations.php">Estonian weather API</a>.
+ * Only the stations passed to the constructor are read. The name of every station is looked up in a hash map
+ * through a view of the characters of the parser, so skipped stations don't create any strings.
+ * As in the API, the name is expected to be the first element of a station.
+ */
+public class WeatherObservationsParser {
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private final Map<CharBuffer, String> stations;
+
+    /**
+     * @param stations The names of the stations to read.
+     */
+    public WeatherObservationsParser(Collection<String> stations) {
+        this.stations = new HashMap<>();
+        for (String station : stations) {
+            this.stations.put(CharBuffer.wrap(station.toCharArray()), station);
+        }
+    }
+
+    /**
+     * Reads the observations of the stations from the document. The stream is not closed.
+     * @param input The observations document.
+     * @return The observations of the stations in document order, each with the timestamp of the document.
+     * @throws XMLStreamException if the document is not well-formed, contains an invalid number or has no timestamp
+     * before its stations.
+     */
+    public List<WeatherData> parse(InputStream input) throws XMLStreamException {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(input);
+        try {
+            List<WeatherData> observations = new ArrayList<>(stations.size());
+            Long timestamp = null;
+            while (reader.hasNext()) {
+                if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String element = reader.getLocalName();
+                if (element.equals("observations")) {
+                    timestamp = Long.valueOf(reader.getAttributeValue(null, "timestamp"));
+                } else if (element.equals("station")) {
+                    if (timestamp == null) {
+                        throw new XMLStreamException("The observations document has no timestamp before its stations.",
+                                reader.getLocation());
+                    }
+                    WeatherData weatherData = parseStation(reader);
+                    if (weatherData != null) {
+                        weatherData.setObservationTimestamp(timestamp);
+                        observations.add(weatherData);
+                    }
+                }
+            }
+            return observations;
+        } catch (NumberFormatException e) {
+            throw new XMLStreamException("The observations document contains an invalid number.", reader.getLocation(), e);
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Reads the station the reader is positioned at and leaves the reader at its end element.
+     * @return The observation of the station or null if the station is not one of the parsed stations.
+     */
+    private WeatherData parseStation(XMLStreamReader reader) throws XMLStreamException {
+        WeatherData weatherData = null;
+        while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+            String element = reader.getLocalName();
+            if (weatherData == null) {
+                if (!element.equals("name")) {
+                    skipElement(reader);
+                    continue;
+                }
+                String station = readStation(reader);
+                if (station == null) {
+                    skipElement(reader);
+                    return null;
+                }
+                weatherData = new WeatherData();
+                weatherData.setStation(station);
+                continue;
+            }
+            switch (element) {
+                case "wmocode" -> weatherData.setStationWMO(reader.getElementText());
+                case "airtemperature" -> {
+                    String airTemp = reader.getElementText();
+                    if (!airTemp.isEmpty()) {
+                        weatherData.setAirTemperature(Float.parseFloat(airTemp));
+                    }
+                }
+                case "windspeed" -> {
+                    String windSpeed = reader.getElementText();
+                    if (!windSpeed.isEmpty()) {
+                        weatherData.setWindSpeed(Float.parseFloat(windSpeed));
+                    }
+                }
+                case "phenomenon" -> weatherData.setWeatherPhenomenon(reader.getElementText());
+                default -> skipElement(reader);
+            }
+        }
+        return weatherData;
+    }
+
+    /**
+     * Reads the text of the name element the reader is positioned at and leaves the reader at its end element.
+     * @return The matching station or null if the name is not one of the parsed stations.
+     */
+    private String readStation(XMLStreamReader reader) throws XMLStreamException {
+        String station = null;
+        int event;
+        while ((event = reader.next()) != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                station = stations.get(CharBuffer.wrap(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength()));
+            }
+        }
+        return station;
+    }
+
+    /**
+     * Skips the rest of the element the reader is inside of, leaving the reader at its end element.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
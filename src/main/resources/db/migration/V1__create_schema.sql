@@ -0,0 +1,80 @@
+-- Schema of the delivery fee service. Entities are validated against it, so every change to them needs a new migration.
+
+CREATE TABLE regional_base_fee (
+    id          INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    city        VARCHAR(255) NOT NULL,
+    car_fee     FLOAT(24)    NOT NULL,
+    scooter_fee FLOAT(24)    NOT NULL,
+    bike_fee    FLOAT(24)    NOT NULL
+);
+
+CREATE TABLE city_station (
+    id      INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    city    VARCHAR(255) NOT NULL,
+    station VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_city_station_city UNIQUE (city)
+);
+
+-- vehicle_mask is a bitmask of the ordinals of the Vehicle enum.
+CREATE TABLE air_temperature_conditions (
+    id            INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    vehicle_mask  INTEGER   NOT NULL DEFAULT 0,
+    less_than     FLOAT(24) NOT NULL,
+    less_than_fee FLOAT(24) NOT NULL,
+    between_min   FLOAT(24) NOT NULL,
+    between_max   FLOAT(24) NOT NULL,
+    between_fee   FLOAT(24) NOT NULL
+);
+
+CREATE TABLE wind_speed_conditions (
+    id              INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    vehicle_mask    INTEGER   NOT NULL DEFAULT 0,
+    between_min     FLOAT(24) NOT NULL,
+    between_max     FLOAT(24) NOT NULL,
+    between_fee     FLOAT(24) NOT NULL,
+    forbidden_speed FLOAT(24) NOT NULL
+);
+
+CREATE TABLE weather_phenomenon_conditions (
+    id                    INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    vehicle_mask          INTEGER   NOT NULL DEFAULT 0,
+    snow_or_sleet_fee     FLOAT(24) NOT NULL,
+    rain_fee              FLOAT(24) NOT NULL,
+    forbidden_phenomenons VARCHAR(255)
+);
+
+-- weather_phenomenon_code is the ordinal of the WeatherPhenomenon enum. It has no check constraint,
+-- so that constants can be added to the enum without a migration.
+CREATE TABLE weather_data (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    station                 VARCHAR(255) NOT NULL,
+    stationwmo              VARCHAR(255),
+    air_temperature         FLOAT(24)    NOT NULL,
+    wind_speed              FLOAT(24)    NOT NULL,
+    weather_phenomenon      VARCHAR(255),
+    weather_phenomenon_code TINYINT,
+    observation_timestamp   BIGINT       NOT NULL,
+    CONSTRAINT uk_weather_data_station_observation_timestamp UNIQUE (station, observation_timestamp)
+);
+
+-- Lookups by station are served by the unique constraint, the retention scans by time alone.
+CREATE INDEX idx_weather_data_observation_timestamp ON weather_data (observation_timestamp);
+
+CREATE TABLE weather_data_rollup (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    station             VARCHAR(255) NOT NULL,
+    day_start           BIGINT       NOT NULL,
+    observations        INTEGER      NOT NULL,
+    air_temperature_min FLOAT(24)    NOT NULL,
+    air_temperature_avg FLOAT(24)    NOT NULL,
+    air_temperature_max FLOAT(24)    NOT NULL,
+    wind_speed_avg      FLOAT(24)    NOT NULL,
+    wind_speed_max      FLOAT(24)    NOT NULL,
+    CONSTRAINT uk_weather_data_rollup_station_day UNIQUE (station, day_start)
+);
+
+CREATE TABLE scheduler_lease (
+    name       VARCHAR(255)             NOT NULL PRIMARY KEY,
+    owner      VARCHAR(255)             NOT NULL,
+    expires_at TIMESTAMP(6) WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,21 @@
+-- Initial business rules and cities. They can be changed through the REST interface afterwards.
+
+INSERT INTO regional_base_fee (city, car_fee, scooter_fee, bike_fee) VALUES
+    ('tallinn', 4.0, 3.5, 3.0),
+    ('tartu', 3.5, 3.0, 2.5),
+    ('pärnu', 3.0, 2.5, 2.0);
+
+INSERT INTO city_station (city, station) VALUES
+    ('tallinn', 'Tallinn-Harku'),
+    ('tartu', 'Tartu-Tõravere'),
+    ('pärnu', 'Pärnu');
+
+-- 6 = bike and scooter, 2 = bike
+INSERT INTO air_temperature_conditions (vehicle_mask, less_than, less_than_fee, between_min, between_max, between_fee) VALUES
+    (6, -10.0, 1.0, -10.0, 0, 0.5);
+
+INSERT INTO wind_speed_conditions (vehicle_mask, between_min, between_max, between_fee, forbidden_speed) VALUES
+    (2, 10.0, 20.0, 0.5, 20);
+
+INSERT INTO weather_phenomenon_conditions (vehicle_mask, snow_or_sleet_fee, rain_fee, forbidden_phenomenons) VALUES
+    (6, 1.0, 0.5, 'Glaze, Hail, Thunder, Thunderstorm');
@@ -0,0 +1,7 @@
+-- Every committed change of the fee rules stores a copy of all rules, so that historical quotes
+-- are calculated with the rules that were in force at the requested time.
+CREATE TABLE fee_rule_version (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    effective_from BIGINT                 NOT NULL,
+    rules          CHARACTER LARGE OBJECT NOT NULL
+);
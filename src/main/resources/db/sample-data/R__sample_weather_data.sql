@@ -0,0 +1,9 @@
+-- Observations made at 2024-03-17T15:14:59 local time, which the API tests and benchmarks quote fees for.
+-- Only loaded in the default in-memory mode, not by the persistent profile.
+
+MERGE INTO weather_data
+    (station, stationwmo, air_temperature, wind_speed, weather_phenomenon, weather_phenomenon_code, observation_timestamp)
+    KEY (station, observation_timestamp) VALUES
+    ('Tallinn-Harku', '26038', 2, 5, '', 0, 1710681299),
+    ('Tartu-Tõravere', '26242', 1, 6, '', 0, 1710681299),
+    ('Pärnu', '41803', 3, 4, '', 0, 1710681299);
@@ -0,0 +1,62 @@
+package com.artjomkuznetsov.deliveryfee.cache;
+
+import com.artjomkuznetsov.deliveryfee.models.WeatherData;
+import com.artjomkuznetsov.deliveryfee.repositories.WeatherDataRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+class LatestWeatherDataCacheTest {
+    private static final String STATION = "Tallinn-Harku";
+
+    private WeatherDataRepository weatherDataRepository;
+    private LatestWeatherDataCache cache;
+
+    @BeforeEach
+    void setUp() {
+        weatherDataRepository = Mockito.mock(WeatherDataRepository.class);
+        cache = new LatestWeatherDataCache(weatherDataRepository);
+    }
+
+    @Test
+    void reloadOfUnchangedDataReturnsFalse() {
+        // Every query returns a new entity, like the database does.
+        Mockito.when(weatherDataRepository.findFirstByStationOrderByObservationTimestampDesc(STATION))
+                .thenAnswer(invocation -> observation(1710412650L, -2));
+
+        Assertions.assertTrue(cache.reload(List.of(STATION)));
+        long version = cache.getVersion();
+
+        Assertions.assertFalse(cache.reload(List.of(STATION)));
+        Assertions.assertEquals(version, cache.getVersion());
+    }
+
+    @Test
+    void reloadOfNewerDataReturnsTrue() {
+        Mockito.when(weatherDataRepository.findFirstByStationOrderByObservationTimestampDesc(STATION))
+                .thenReturn(observation(1710412650L, -2), observation(1710413550L, -3));
+
+        cache.reload(List.of(STATION));
+
+        Assertions.assertTrue(cache.reload(List.of(STATION)));
+        Assertions.assertEquals(-3, cache.getIfPresent(STATION).getAirTemperature());
+    }
+
+    @Test
+    void publishKeepsNewerObservation() {
+        WeatherData newer = observation(1710413550L, -3);
+        cache.publish(newer);
+        long version = cache.getVersion();
+
+        Assertions.assertSame(newer, cache.publish(observation(1710412650L, -2)));
+        Assertions.assertSame(newer, cache.publish(observation(1710413550L, -3)));
+        Assertions.assertEquals(version, cache.getVersion());
+    }
+
+    private static WeatherData observation(long timestamp, float airTemperature) {
+        return new WeatherData(STATION, "26038", airTemperature, 5, "", timestamp);
+    }
+}
@@ -0,0 +1,112 @@
+package com.artjomkuznetsov.deliveryfee.controllers;
+
+import com.artjomkuznetsov.deliveryfee.assemblers.FeeModelAssembler;
+import com.artjomkuznetsov.deliveryfee.controllers.requests.FeeQuoteRequest;
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeQuoteResult;
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeResponse;
+import com.artjomkuznetsov.deliveryfee.services.CalculationService;
+import com.artjomkuznetsov.deliveryfee.services.FeeStreamService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(DeliveryFeeController.class)
+@Import(FeeModelAssembler.class)
+@TestPropertySource(properties = "fee.batch.max-size=2")
+class DeliveryFeeControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private CalculationService calculationService;
+    @MockBean
+    private FeeStreamService feeStreamService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Mockito.when(calculationService.calculateFee(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenReturn(new FeeResponse(4));
+    }
+
+    @Test
+    void leanParameterReturnsOnlyFee() throws Exception {
+        mockMvc.perform(get("/fee").param("city", "tallinn").param("vehicle", "car").param("lean", "true"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("{\"deliveryFee\":4.0}", true));
+    }
+
+    @Test
+    void leanMediaTypeReturnsOnlyFee() throws Exception {
+        mockMvc.perform(get("/fee").param("city", "tallinn").param("vehicle", "car").accept(FeeResponse.LEAN_MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(FeeResponse.LEAN_MEDIA_TYPE))
+                .andExpect(content().json("{\"deliveryFee\":4.0}", true));
+    }
+
+    @Test
+    void defaultRequestReturnsHal() throws Exception {
+        mockMvc.perform(get("/fee").param("city", "tallinn").param("vehicle", "car"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaTypes.HAL_JSON))
+                .andExpect(jsonPath("$.deliveryFee").value(4.0))
+                .andExpect(jsonPath("$._links.self.href").value("http://localhost/fee?city=tallinn&vehicle=car"));
+    }
+
+    /**
+     * The expected links are the ones the application returned while they were built with {@code linkTo(methodOn(...))}.
+     */
+    @Test
+    void selfLinkMatchesLinkBuiltFromController() throws Exception {
+        mockMvc.perform(get("/fee").param("city", "pärnu").param("vehicle", "scooter")
+                        .param("dateTime", "2024-03-17T15:30:40"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.self.href")
+                        .value("http://localhost/fee?city=p%C3%A4rnu&vehicle=scooter&dateTime=2024-03-17T15:30:40"));
+        mockMvc.perform(get("/fee").param("city", "pärnu").param("vehicle", "scooter").param("dateTime", "2024-03-17T15:15"))
+                .andExpect(jsonPath("$._links.self.href")
+                        .value("http://localhost/fee?city=p%C3%A4rnu&vehicle=scooter&dateTime=2024-03-17T15:15:00"));
+        mockMvc.perform(get("/fee").param("city", "pärnu").param("vehicle", "scooter"))
+                .andExpect(jsonPath("$._links.self.href").value("http://localhost/fee?city=p%C3%A4rnu&vehicle=scooter"));
+    }
+
+    @Test
+    void batchOverMaxSizeIsRejected() throws Exception {
+        mockMvc.perform(post("/fee/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"city\":\"tallinn\",\"vehicle\":\"car\"},{\"city\":\"tartu\",\"vehicle\":\"car\"},"
+                                + "{\"city\":\"pärnu\",\"vehicle\":\"car\"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("A batch can contain at most 2 items."));
+        Mockito.verifyNoInteractions(calculationService);
+    }
+
+    @Test
+    void batchWithNullItemIsCalculated() throws Exception {
+        FeeQuoteRequest request = new FeeQuoteRequest("tallinn", "car", null);
+        Mockito.when(calculationService.calculateFees(ArgumentMatchers.eq(Arrays.asList(request, null))))
+                .thenReturn(List.of(FeeQuoteResult.ok(request, 4),
+                        new FeeQuoteResult(null, null, null, FeeQuoteResult.Status.BAD_REQUEST, null, "Invalid request.")));
+
+        mockMvc.perform(post("/fee/batch").contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"city\":\"tallinn\",\"vehicle\":\"car\"},null]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("OK"))
+                .andExpect(jsonPath("$[1].status").value("BAD_REQUEST"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.artjomkuznetsov.deliveryfee.database;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+@ExtendWith(MockitoExtension.class)
+class ConcurrencyLimitingDataSourceTest {
+    private ConcurrencyLimitingDataSource dataSource;
+
+    @Mock
+    private DataSource targetDataSource;
+
+    @Mock
+    private Connection connection;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Mockito.lenient().when(targetDataSource.getConnection()).thenReturn(connection);
+        dataSource = new ConcurrencyLimitingDataSource(targetDataSource, 1, Duration.ofMillis(10));
+    }
+
+    @Test
+    void getConnectionOverLimitThrowsSQLTransientConnectionException() throws SQLException {
+        dataSource.getConnection();
+        Assertions.assertThrows(SQLTransientConnectionException.class, () -> dataSource.getConnection());
+    }
+
+    @Test
+    void closeConnectionReleasesPermitOnce() throws SQLException {
+        Connection limited = dataSource.getConnection();
+        limited.close();
+        limited.close();
+
+        Assertions.assertEquals(1, dataSource.getAvailablePermits());
+        Mockito.verify(connection, Mockito.times(2)).close();
+    }
+
+    @Test
+    void getConnectionFailureReleasesPermit() throws SQLException {
+        Mockito.when(targetDataSource.getConnection()).thenThrow(new SQLException("Pool is closed."));
+        Assertions.assertThrows(SQLException.class, () -> dataSource.getConnection());
+        Assertions.assertEquals(1, dataSource.getAvailablePermits());
+    }
+}
@@ -0,0 +1,40 @@
+package com.artjomkuznetsov.deliveryfee.repositories;
+
+import com.artjomkuznetsov.deliveryfee.models.Vehicle;
+import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.AirTemperatureConditions;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@DataJpaTest
+class AirTemperatureConditionsRepositoryTest {
+    @Autowired
+    private AirTemperatureConditionsRepository airRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void vehicleTypesAreStoredAsBitmask() {
+        airRepository.deleteAll();
+        airRepository.saveAndFlush(new AirTemperatureConditions(List.of("scooter", "bike"), -10, 1, -10, 0, 0.5f));
+
+        Assertions.assertEquals(6, jdbcTemplate.queryForObject("SELECT vehicle_mask FROM air_temperature_conditions", Integer.class));
+        AirTemperatureConditions loaded = airRepository.findFirstBy().orElseThrow();
+        Assertions.assertEquals(List.of("bike", "scooter"), loaded.getVehicleTypes());
+        Assertions.assertTrue(loaded.appliesTo(Vehicle.BIKE));
+        Assertions.assertFalse(loaded.appliesTo(Vehicle.CAR));
+    }
+
+    @Test
+    void vehicleMaskWithUnknownBitsIsRejected() {
+        AirTemperatureConditions conditions = new AirTemperatureConditions(List.of("bike"), -10, 1, -10, 0, 0.5f);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> conditions.setVehicleMask(8));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> conditions.setVehicleMask(-1));
+        Assertions.assertEquals(List.of("bike"), conditions.getVehicleTypes());
+    }
+}
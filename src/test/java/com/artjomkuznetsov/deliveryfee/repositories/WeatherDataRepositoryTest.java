@@ -0,0 +1,60 @@
+package com.artjomkuznetsov.deliveryfee.repositories;
+
+import com.artjomkuznetsov.deliveryfee.models.WeatherData;
+import com.artjomkuznetsov.deliveryfee.models.WeatherDataRollup;
+import com.artjomkuznetsov.deliveryfee.models.WeatherPhenomenon;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+@DataJpaTest
+@TestPropertySource(properties = "spring.flyway.locations=classpath:db/migration")
+class WeatherDataRepositoryTest {
+    @Autowired
+    private WeatherDataRepository weatherDataRepository;
+    @Autowired
+    private WeatherDataRollupRepository rollupRepository;
+
+    @Test
+    void upsertAllReplacesObservationOfSameStationAndTimestamp() {
+        weatherDataRepository.upsertAll(List.of(
+                new WeatherData("Tallinn-Harku", "26038", 2, 5, "", 1710681299L),
+                new WeatherData("Pärnu", "41803", 3, 4, "", 1710681299L)));
+        weatherDataRepository.upsertAll(List.of(
+                new WeatherData("Tallinn-Harku", "26038", -3, 6, "Light snowfall", 1710681299L),
+                new WeatherData("Tallinn-Harku", "26038", 1, 2, "", 1710684899L)));
+
+        Assertions.assertEquals(3, weatherDataRepository.count());
+        WeatherData replaced = weatherDataRepository
+                .findFirstByStationAndObservationTimestampBetweenOrderByObservationTimestampDesc("Tallinn-Harku", 1710681299L, 1710681299L)
+                .orElseThrow();
+        Assertions.assertEquals(-3, replaced.getAirTemperature());
+        Assertions.assertEquals(WeatherPhenomenon.LIGHT_SNOWFALL, replaced.getWeatherPhenomenonCode());
+    }
+
+    @Test
+    void rollUpAndDeleteCombinesObservationsWithExistingRollup() {
+        long day = 1710633600L;
+        weatherDataRepository.upsertAll(List.of(
+                new WeatherData("Tallinn-Harku", "26038", 2, 5, "", day + 3600),
+                new WeatherData("Tallinn-Harku", "26038", -4, 9, "", day + 7200),
+                new WeatherData("Tallinn-Harku", "26038", 7, 1, "", day + 86400)));
+        Assertions.assertEquals(2, weatherDataRepository.rollUpAndDelete(day, day, day + 86400));
+
+        weatherDataRepository.upsertAll(List.of(new WeatherData("Tallinn-Harku", "26038", 5, 2, "", day + 10800)));
+        Assertions.assertEquals(1, weatherDataRepository.rollUpAndDelete(day, day, day + 86400));
+
+        Assertions.assertEquals(1, weatherDataRepository.count());
+        WeatherDataRollup rollup = rollupRepository.findByStationAndDay("Tallinn-Harku", day).orElseThrow();
+        Assertions.assertEquals(3, rollup.getObservations());
+        Assertions.assertEquals(-4, rollup.getAirTemperatureMin());
+        Assertions.assertEquals(1, rollup.getAirTemperatureAvg(), 0.001);
+        Assertions.assertEquals(5, rollup.getAirTemperatureMax());
+        Assertions.assertEquals(16 / 3f, rollup.getWindSpeedAvg(), 0.001);
+        Assertions.assertEquals(9, rollup.getWindSpeedMax());
+    }
+}
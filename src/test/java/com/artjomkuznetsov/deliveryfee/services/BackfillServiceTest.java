@@ -0,0 +1,145 @@
+package com.artjomkuznetsov.deliveryfee.services;
+
+import com.artjomkuznetsov.deliveryfee.cache.LatestWeatherDataCache;
+import com.artjomkuznetsov.deliveryfee.cache.StationRegistry;
+import com.artjomkuznetsov.deliveryfee.controllers.responses.BackfillStatus;
+import com.artjomkuznetsov.deliveryfee.events.WeatherDataIngestedEvent;
+import com.artjomkuznetsov.deliveryfee.models.CityStation;
+import com.artjomkuznetsov.deliveryfee.models.WeatherData;
+import com.artjomkuznetsov.deliveryfee.repositories.CityStationRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.WeatherDataRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+
+@ExtendWith(MockitoExtension.class)
+class BackfillServiceTest {
+    @TempDir
+    Path directory;
+
+    @Mock
+    private WeatherDataRepository weatherDataRepository;
+    @Mock
+    private CityStationRepository cityStationRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    private LatestWeatherDataCache latestWeatherDataCache;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.lenient().when(cityStationRepository.findAll()).thenReturn(List.of(
+                new CityStation("tallinn", "Tallinn-Harku"), new CityStation("tartu", "Tartu-Tõravere")));
+        Mockito.lenient().doAnswer(invocation -> {
+            List<WeatherData> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            return null;
+        }).when(weatherDataRepository).upsertAll(Mockito.anyList());
+        latestWeatherDataCache = new LatestWeatherDataCache(weatherDataRepository);
+    }
+
+    @Test
+    void backfillImportsArchivesInBatches() throws IOException {
+        for (int hour = 0; hour < 10; hour++) {
+            Files.writeString(directory.resolve("observations-" + hour + ".xml"), observations(1710681299L + hour * 3600L));
+        }
+        Files.createDirectory(directory.resolve("csv"));
+        Files.writeString(directory.resolve("csv/observations.csv"), """
+                station,wmocode,timestamp,airtemperature,windspeed,phenomenon
+                Tallinn-Harku,26038,1710717299,-3.0,4.0,Light snow shower
+                Pärnu,41803,1710717299,1.0,2.0,
+                """);
+        Files.writeString(directory.resolve("broken.xml"), "<observations timestamp=");
+        Files.writeString(directory.resolve("readme.txt"), "not an archive");
+
+        BackfillStatus status = backfill(5);
+
+        Assertions.assertEquals(BackfillStatus.State.COMPLETED, status.state());
+        Assertions.assertEquals(12, status.files());
+        Assertions.assertEquals(11, status.filesParsed());
+        Assertions.assertEquals(1, status.filesFailed());
+        Assertions.assertEquals(21, status.observationsParsed());
+        Assertions.assertEquals(21, status.observationsWritten());
+        Assertions.assertEquals(21, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        Assertions.assertTrue(batchSizes.stream().allMatch(size -> size <= 6), batchSizes.toString());
+        Assertions.assertEquals(1710717299L, latestWeatherDataCache.get("Tallinn-Harku").getObservationTimestamp());
+        Mockito.verify(eventPublisher).publishEvent(new WeatherDataIngestedEvent(21));
+    }
+
+    @Test
+    void backfillSkipsArchiveWithoutTimestamp() throws IOException {
+        Files.writeString(directory.resolve("observations.xml"), observations(1710681299L));
+        Files.writeString(directory.resolve("no-timestamp.xml"), """
+                <archive>
+                    <station><name>Tallinn-Harku</name><airtemperature>2.4</airtemperature></station>
+                    <observations timestamp="1710684899"/>
+                </archive>
+                """);
+
+        BackfillStatus status = backfill(5);
+
+        Assertions.assertEquals(BackfillStatus.State.COMPLETED, status.state());
+        Assertions.assertEquals(1, status.filesParsed());
+        Assertions.assertEquals(1, status.filesFailed());
+        Assertions.assertEquals(2, status.observationsWritten());
+    }
+
+    @Test
+    void backfillFailsWithoutDirectory() {
+        directory = directory.resolve("missing");
+
+        BackfillStatus status = backfill(5);
+
+        Assertions.assertEquals(BackfillStatus.State.FAILED, status.state());
+        Assertions.assertTrue(status.error().contains("doesn't exist"), status.error());
+        Mockito.verifyNoInteractions(weatherDataRepository);
+    }
+
+    private BackfillStatus backfill(int batchSize) {
+        BackfillService service = new BackfillService(weatherDataRepository, new StationRegistry(cityStationRepository),
+                latestWeatherDataCache, eventPublisher, directory.toString(), batchSize, 3);
+        Assertions.assertEquals(BackfillStatus.State.RUNNING, service.start().state());
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> service.getStatus().state() != BackfillStatus.State.RUNNING);
+        return service.getStatus();
+    }
+
+    private static String observations(long timestamp) {
+        return """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <observations timestamp="%d">
+                    <station>
+                        <name>Tallinn-Harku</name>
+                        <wmocode>26038</wmocode>
+                        <phenomenon></phenomenon>
+                        <airtemperature>2.4</airtemperature>
+                        <windspeed>5.3</windspeed>
+                    </station>
+                    <station>
+                        <name>Tartu-Tõravere</name>
+                        <wmocode>26242</wmocode>
+                        <phenomenon>Light rain</phenomenon>
+                        <airtemperature>1.0</airtemperature>
+                        <windspeed>3.0</windspeed>
+                    </station>
+                </observations>
+                """.formatted(timestamp);
+    }
+}
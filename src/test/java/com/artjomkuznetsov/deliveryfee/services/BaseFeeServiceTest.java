@@ -0,0 +1,63 @@
+package com.artjomkuznetsov.deliveryfee.services;
+
+import com.artjomkuznetsov.deliveryfee.assemblers.RegionalBaseFeeModelAssembler;
+import com.artjomkuznetsov.deliveryfee.events.FeeRulesChangedEvent;
+import com.artjomkuznetsov.deliveryfee.exceptions.BadRequestBodyException;
+import com.artjomkuznetsov.deliveryfee.models.RegionalBaseFee;
+import com.artjomkuznetsov.deliveryfee.repositories.RegionalBaseFeeRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.TestPropertySource;
+
+@DataJpaTest
+@TestPropertySource(properties = "spring.flyway.locations=classpath:db/migration")
+class BaseFeeServiceTest {
+    @Autowired
+    private RegionalBaseFeeRepository baseFeeRepository;
+
+    private ApplicationEventPublisher eventPublisher;
+    private BaseFeeService baseFeeService;
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        baseFeeService = new BaseFeeService(baseFeeRepository, new RegionalBaseFeeModelAssembler(), eventPublisher);
+    }
+
+    @Test
+    void createBaseFeeStoresCityInLowerCase() {
+        baseFeeService.createBaseFee(new RegionalBaseFee(" Narva ", 3.5f, 3f, 2.5f));
+
+        RegionalBaseFee created = baseFeeRepository.findByCity("narva").orElseThrow();
+        Assertions.assertEquals(3.5f, created.getCarFee());
+        Assertions.assertEquals(3f, created.getScooterFee());
+        Assertions.assertEquals(2.5f, created.getBikeFee());
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(FeeRulesChangedEvent.class));
+    }
+
+    @Test
+    void createBaseFeeRejectsExistingCityInAnyCase() {
+        long baseFees = baseFeeRepository.count();
+
+        BadRequestBodyException exception = Assertions.assertThrows(BadRequestBodyException.class,
+                () -> baseFeeService.createBaseFee(new RegionalBaseFee("TALLINN", 5f, 4f, 3f)));
+
+        Assertions.assertEquals("Regional base fee for city tallinn already exists.", exception.getMessage());
+        Assertions.assertEquals(baseFees, baseFeeRepository.count());
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void createBaseFeeRejectsNegativeFees() {
+        BadRequestBodyException exception = Assertions.assertThrows(BadRequestBodyException.class,
+                () -> baseFeeService.createBaseFee(new RegionalBaseFee("Narva", 3.5f, -1f, 2.5f)));
+
+        Assertions.assertEquals("Fees cannot be negative.", exception.getMessage());
+        Assertions.assertTrue(baseFeeRepository.findByCity("narva").isEmpty());
+    }
+}
@@ -0,0 +1,100 @@
+package com.artjomkuznetsov.deliveryfee.services;
+
+import com.artjomkuznetsov.deliveryfee.assemblers.CityStationModelAssembler;
+import com.artjomkuznetsov.deliveryfee.cache.FeeRuleCache;
+import com.artjomkuznetsov.deliveryfee.cache.FeeRuleHistory;
+import com.artjomkuznetsov.deliveryfee.cache.LatestWeatherDataCache;
+import com.artjomkuznetsov.deliveryfee.cache.StationRegistry;
+import com.artjomkuznetsov.deliveryfee.events.CityStationsChangedEvent;
+import com.artjomkuznetsov.deliveryfee.exceptions.BadRequestBodyException;
+import com.artjomkuznetsov.deliveryfee.exceptions.CityStationNotFoundException;
+import com.artjomkuznetsov.deliveryfee.metrics.FeeMetrics;
+import com.artjomkuznetsov.deliveryfee.models.CityStation;
+import com.artjomkuznetsov.deliveryfee.repositories.AirTemperatureConditionsRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.CityStationRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.FeeRuleVersionRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.RegionalBaseFeeRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.WeatherDataRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.WeatherPhenomenonConditionsRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.WindSpeedConditionsRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+
+@DataJpaTest
+@TestPropertySource(properties = "spring.flyway.locations=classpath:db/migration")
+class CityStationServiceTest {
+    @Autowired
+    private CityStationRepository cityStationRepository;
+    @Autowired
+    private RegionalBaseFeeRepository baseFeeRepository;
+    @Autowired
+    private AirTemperatureConditionsRepository airRepository;
+    @Autowired
+    private WindSpeedConditionsRepository windRepository;
+    @Autowired
+    private WeatherPhenomenonConditionsRepository phenomenonRepository;
+    @Autowired
+    private FeeRuleVersionRepository versionRepository;
+    @Autowired
+    private WeatherDataRepository weatherDataRepository;
+
+    private StationRegistry stationRegistry;
+    private CityStationService cityStationService;
+
+    @BeforeEach
+    void setUp() {
+        stationRegistry = new StationRegistry(cityStationRepository);
+        // Delivers the change events the way the application context does once the change has been committed.
+        cityStationService = new CityStationService(cityStationRepository, new CityStationModelAssembler(), event -> {
+            if (event instanceof CityStationsChangedEvent changed) {
+                stationRegistry.onCityStationsChanged(changed);
+            }
+        });
+    }
+
+    @Test
+    void createCityRejectsRegisteredCityInAnyCase() {
+        CityStation created = cityStationService.createCity(new CityStation(" Narva ", "Narva")).getContent();
+
+        Assertions.assertEquals("narva", created.getCity());
+        Assertions.assertEquals("Narva", stationRegistry.current().getStation("narva"));
+        BadRequestBodyException exception = Assertions.assertThrows(BadRequestBodyException.class,
+                () -> cityStationService.createCity(new CityStation("NARVA", "Narva-Jõesuu")));
+        Assertions.assertEquals("City narva is already registered.", exception.getMessage());
+        Assertions.assertEquals("Narva", cityStationRepository.findByCity("narva").orElseThrow().getStation());
+    }
+
+    @Test
+    void citiesAreFoundInAnyCase() {
+        Assertions.assertEquals("Tallinn-Harku", cityStationService.getOneByCity("TALLINN").getContent().getStation());
+
+        cityStationService.updateCity(Map.of("station", "Pärnu-Sauga"), "Pärnu");
+
+        Assertions.assertEquals("Pärnu-Sauga", cityStationRepository.findByCity("pärnu").orElseThrow().getStation());
+        Assertions.assertThrows(CityStationNotFoundException.class, () -> cityStationService.getOneByCity("Narva"));
+    }
+
+    @Test
+    void deleteCityRebuildsFeeMatrix() {
+        FeeRuleCache feeRuleCache = new FeeRuleCache(baseFeeRepository, airRepository, windRepository, phenomenonRepository);
+        CalculationService calculationService = new CalculationService(weatherDataRepository, feeRuleCache,
+                new FeeRuleHistory(versionRepository, new ObjectMapper().findAndRegisterModules(), feeRuleCache),
+                stationRegistry, new LatestWeatherDataCache(weatherDataRepository), 3600,
+                new FeeMetrics(new SimpleMeterRegistry()));
+        Assertions.assertTrue(calculationService.getFeeMatrix().getCities().contains("tartu"));
+
+        cityStationService.deleteCity("Tartu");
+
+        Assertions.assertEquals(List.of("tallinn", "pärnu"), calculationService.getFeeMatrix().getCities());
+        Assertions.assertThrows(CityStationNotFoundException.class, () -> cityStationService.deleteCity("tartu"));
+    }
+}
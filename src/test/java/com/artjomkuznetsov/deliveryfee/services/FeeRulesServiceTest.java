@@ -0,0 +1,126 @@
+package com.artjomkuznetsov.deliveryfee.services;
+
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeRulesDocument;
+import com.artjomkuznetsov.deliveryfee.events.FeeRulesChangedEvent;
+import com.artjomkuznetsov.deliveryfee.exceptions.BadRequestBodyException;
+import com.artjomkuznetsov.deliveryfee.models.RegionalBaseFee;
+import com.artjomkuznetsov.deliveryfee.repositories.AirTemperatureConditionsRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.FeeRuleVersionRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.RegionalBaseFeeRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.WeatherPhenomenonConditionsRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.WindSpeedConditionsRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+@DataJpaTest
+@TestPropertySource(properties = "spring.flyway.locations=classpath:db/migration")
+class FeeRulesServiceTest {
+    @Autowired
+    private RegionalBaseFeeRepository baseFeeRepository;
+    @Autowired
+    private AirTemperatureConditionsRepository airRepository;
+    @Autowired
+    private WindSpeedConditionsRepository windRepository;
+    @Autowired
+    private WeatherPhenomenonConditionsRepository phenomenonRepository;
+    @Autowired
+    private FeeRuleVersionRepository versionRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ApplicationEventPublisher eventPublisher;
+    private FeeRulesService feeRulesService;
+
+    @BeforeEach
+    void setUp() {
+        eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+        feeRulesService = new FeeRulesService(baseFeeRepository, airRepository, windRepository, phenomenonRepository,
+                versionRepository, objectMapper, eventPublisher);
+    }
+
+    @Test
+    void importReplacesAllRulesAndPublishesOneEvent() {
+        FeeRulesDocument exported = feeRulesService.exportRules();
+        exported.airTemperatureConditions().setLessThanFee(2f);
+        FeeRulesDocument document = new FeeRulesDocument(FeeRulesDocument.VERSION, null, List.of(
+                new RegionalBaseFee("Tallinn", 5f, 4.5f, 4f),
+                new RegionalBaseFee("Narva", 3f, 2.5f, 2f)),
+                exported.airTemperatureConditions(), exported.windSpeedConditions(), exported.phenomenonConditions());
+
+        feeRulesService.importRules(document);
+
+        Assertions.assertEquals(List.of("narva", "tallinn"),
+                baseFeeRepository.findAll().stream().map(RegionalBaseFee::getCity).sorted().toList());
+        Assertions.assertEquals(5f, baseFeeRepository.findByCity("tallinn").orElseThrow().getCarFee());
+        Assertions.assertEquals(1, airRepository.count());
+        Assertions.assertEquals(2f, airRepository.findFirstBy().orElseThrow().getLessThanFee());
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(FeeRulesChangedEvent.class));
+    }
+
+    @Test
+    void initialVersionIsRecordedOnlyOnce() {
+        feeRulesService.recordInitialVersion();
+        feeRulesService.recordInitialVersion();
+
+        Assertions.assertEquals(1, versionRepository.count());
+        Assertions.assertEquals(0, versionRepository.findAll().get(0).getEffectiveFrom());
+        Assertions.assertTrue(versionRepository.findAll().get(0).getRules().contains("\"city\":\"tallinn\""));
+    }
+
+    @Test
+    void invalidDocumentChangesNothing() {
+        FeeRulesDocument exported = feeRulesService.exportRules();
+        FeeRulesDocument document = new FeeRulesDocument(FeeRulesDocument.VERSION, null, List.of(
+                new RegionalBaseFee("Tallinn", 5f, 4.5f, 4f),
+                new RegionalBaseFee("tallinn", 3f, 2.5f, 2f)),
+                exported.airTemperatureConditions(), exported.windSpeedConditions(), exported.phenomenonConditions());
+        long baseFees = baseFeeRepository.count();
+
+        BadRequestBodyException exception = Assertions.assertThrows(BadRequestBodyException.class,
+                () -> feeRulesService.importRules(document));
+
+        Assertions.assertEquals("Regional base fee for city tallinn is listed more than once.", exception.getMessage());
+        Assertions.assertEquals(baseFees, baseFeeRepository.count());
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void vehicleTypesAreImportedRegardlessOfCase() throws Exception {
+        FeeRulesDocument document = documentWithAirVehicleTypes("[\"Scooter\",\"BIKE\"]");
+
+        feeRulesService.importRules(document);
+
+        Assertions.assertEquals(List.of("bike", "scooter"), airRepository.findFirstBy().orElseThrow().getVehicleTypes());
+    }
+
+    @Test
+    void unknownVehicleTypeIsRejected() throws Exception {
+        FeeRulesDocument document = documentWithAirVehicleTypes("[\"scooter\",\"plane\"]");
+        List<String> vehicleTypes = airRepository.findFirstBy().orElseThrow().getVehicleTypes();
+
+        BadRequestBodyException exception = Assertions.assertThrows(BadRequestBodyException.class,
+                () -> feeRulesService.importRules(document));
+
+        Assertions.assertEquals("vehicleTypes must be a list of the vehicle types car, bike, scooter.", exception.getMessage());
+        Assertions.assertEquals(vehicleTypes, airRepository.findFirstBy().orElseThrow().getVehicleTypes());
+        Mockito.verifyNoInteractions(eventPublisher);
+    }
+
+    /**
+     * @return The exported rules, read back like a request body with the given vehicle types of the air temperature conditions.
+     */
+    private FeeRulesDocument documentWithAirVehicleTypes(String vehicleTypes) throws Exception {
+        ObjectNode json = objectMapper.valueToTree(feeRulesService.exportRules());
+        ((ObjectNode) json.get("airTemperatureConditions")).set("vehicleTypes", objectMapper.readTree(vehicleTypes));
+        return objectMapper.treeToValue(json, FeeRulesDocument.class);
+    }
+}
@@ -0,0 +1,230 @@
+package com.artjomkuznetsov.deliveryfee.services;
+
+import com.artjomkuznetsov.deliveryfee.cache.CityStations;
+import com.artjomkuznetsov.deliveryfee.cache.FeeMatrix;
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeQuoteResult;
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeUpdate;
+import com.artjomkuznetsov.deliveryfee.events.WeatherDataIngestedEvent;
+import com.artjomkuznetsov.deliveryfee.metrics.FeeMetrics;
+import com.artjomkuznetsov.deliveryfee.models.CityStation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+class FeeStreamServiceTest {
+    private static final List<String> VEHICLES = List.of("car", "bike");
+    private static final int SENDER_THREADS = 4;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Deque<SseEmitter> emitters = new ArrayDeque<>();
+    private final AtomicReference<FeeMatrix> feeMatrix = new AtomicReference<>();
+    private FeeStreamService feeStreamService;
+
+    @BeforeEach
+    void setUp() {
+        CalculationService calculationService = Mockito.mock(CalculationService.class);
+        Mockito.when(calculationService.getFeeMatrix()).thenAnswer(invocation -> feeMatrix.get());
+        feeMatrix.set(matrix(List.of("tallinn", "tartu"), 4, 3, 3.5f, 3));
+        feeStreamService = new FeeStreamService(calculationService, new ObjectMapper(), new FeeMetrics(registry),
+                emitters::removeFirst, 2, SENDER_THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        feeStreamService.shutdown();
+    }
+
+    @Test
+    void subscriberReceivesFilteredSnapshotAndChanges() {
+        RecordingEmitter tallinn = new RecordingEmitter();
+        RecordingEmitter bikes = new RecordingEmitter();
+        emitters.add(tallinn);
+        emitters.add(bikes);
+
+        feeStreamService.subscribe(Optional.of("Tallinn"), Optional.empty());
+        feeStreamService.subscribe(Optional.empty(), Optional.of("BIKE"));
+        Awaitility.await().until(() -> tallinn.events.size() == 1 && bikes.events.size() == 1);
+
+        Assertions.assertEquals("[{\"city\":\"tallinn\",\"vehicle\":\"car\",\"status\":\"OK\",\"deliveryFee\":4.0},"
+                + "{\"city\":\"tallinn\",\"vehicle\":\"bike\",\"status\":\"OK\",\"deliveryFee\":3.0}]", tallinn.events.get(0));
+        Assertions.assertEquals("[{\"city\":\"tallinn\",\"vehicle\":\"bike\",\"status\":\"OK\",\"deliveryFee\":3.0},"
+                + "{\"city\":\"tartu\",\"vehicle\":\"bike\",\"status\":\"OK\",\"deliveryFee\":3.0}]", bikes.events.get(0));
+
+        feeMatrix.set(matrix(List.of("tallinn", "tartu"), 4, 3, 5, 3));
+        feeStreamService.onWeatherDataIngested(new WeatherDataIngestedEvent(1));
+        feeMatrix.set(matrix(List.of("tallinn", "tartu"), 4, 3, 5, 2));
+        feeStreamService.onWeatherDataIngested(new WeatherDataIngestedEvent(1));
+        Awaitility.await().until(() -> bikes.events.size() == 2);
+
+        Assertions.assertEquals(List.of("[{\"city\":\"tartu\",\"vehicle\":\"bike\",\"status\":\"OK\",\"deliveryFee\":2.0}]"),
+                bikes.events.subList(1, 2));
+        Assertions.assertEquals(1, tallinn.events.size());
+    }
+
+    @Test
+    void subscriberWhoseSendFailsIsRemoved() {
+        RecordingEmitter failing = new RecordingEmitter();
+        failing.failure = new IOException("Broken pipe");
+        emitters.add(failing);
+
+        feeStreamService.subscribe(Optional.empty(), Optional.empty());
+
+        Awaitility.await().until(() -> subscriberCount() == 0 && failing.attempts == 1);
+        feeStreamService.sendHeartbeat();
+        Awaitility.await().during(Duration.ofMillis(200)).until(() -> failing.attempts == 1);
+    }
+
+    @Test
+    void stalledSubscriberDoesNotDelayOthersAndIsDropped() {
+        RecordingEmitter stalled = new RecordingEmitter();
+        stalled.blocked = new CountDownLatch(1);
+        RecordingEmitter reading = new RecordingEmitter();
+        emitters.add(stalled);
+        emitters.add(reading);
+
+        feeStreamService.subscribe(Optional.empty(), Optional.empty());
+        feeStreamService.subscribe(Optional.empty(), Optional.empty());
+        Awaitility.await().until(() -> subscriberCount() == 2 && reading.events.size() == 1);
+        for (int i = 1; i <= 3; i++) {
+            feeStreamService.sendHeartbeat();
+            int heartbeats = i;
+            Awaitility.await().until(() -> reading.heartbeats == heartbeats);
+        }
+
+        // The stalled subscriber never gets past the snapshot, so its queue overflows before the third heartbeat.
+        Assertions.assertEquals(1, subscriberCount());
+        stalled.blocked.countDown();
+    }
+
+    @Test
+    void stalledSubscribersHoldAtMostTheSenderThreads() {
+        long otherSenderThreads = senderThreadCount();
+        CountDownLatch blocked = new CountDownLatch(1);
+        List<RecordingEmitter> stalled = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            RecordingEmitter emitter = new RecordingEmitter();
+            emitter.blocked = blocked;
+            stalled.add(emitter);
+            emitters.add(emitter);
+            feeStreamService.subscribe(Optional.empty(), Optional.empty());
+        }
+
+        // The subscribers whose snapshot can't be sent because every sender is stalled are dropped right away.
+        Awaitility.await().until(() -> subscriberCount() == SENDER_THREADS
+                && stalled.stream().filter(emitter -> emitter.completion != null).count() == 20 - SENDER_THREADS);
+        for (int i = 0; i < 3; i++) {
+            feeStreamService.sendHeartbeat();
+        }
+        // Dropping the stalled subscribers whose queues overflow doesn't need a thread either.
+        Awaitility.await().until(() -> subscriberCount() == 0);
+        Assertions.assertTrue(senderThreadCount() - otherSenderThreads <= SENDER_THREADS);
+
+        blocked.countDown();
+        Awaitility.await().until(() -> stalled.stream().allMatch(emitter -> emitter.completion != null));
+    }
+
+    private static long senderThreadCount() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith("fee-stream-send-"))
+                .count();
+    }
+
+    private double subscriberCount() {
+        return registry.get("fee.stream.subscribers").gauge().value();
+    }
+
+    /**
+     * Records the data of sent events instead of writing them to a response.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private volatile int heartbeats;
+        private volatile int attempts;
+        private volatile IOException failure;
+        private volatile CountDownLatch blocked;
+        private volatile Throwable completion;
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> items) throws IOException {
+            attempts++;
+            if (blocked != null) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            String text = items.stream().map(item -> item.getData().toString()).collect(Collectors.joining());
+            if (text.startsWith(":heartbeat")) {
+                heartbeats++;
+            } else {
+                events.add(text.substring(text.indexOf("data:") + "data:".length()).strip());
+            }
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completion = ex;
+            super.completeWithError(ex);
+        }
+    }
+
+    @Test
+    void changesContainAllFeesOfFirstMatrix() {
+        FeeMatrix matrix = matrix(List.of("tallinn"), 4, FeeMatrix.FORBIDDEN);
+
+        Assertions.assertEquals(List.of(
+                new FeeUpdate("tallinn", "car", FeeQuoteResult.Status.OK, 4f),
+                new FeeUpdate("tallinn", "bike", FeeQuoteResult.Status.FORBIDDEN, null)
+        ), FeeStreamService.changes(null, matrix));
+    }
+
+    @Test
+    void changesContainOnlyChangedFeesAndRemovedCities() {
+        FeeMatrix previous = matrix(List.of("tallinn", "tartu"), 4, 3, 3.5f, Float.NaN);
+        FeeMatrix current = matrix(List.of("tallinn", "pärnu"), 4, 3.5f, 3, 2);
+
+        Assertions.assertEquals(List.of(
+                new FeeUpdate("tallinn", "bike", FeeQuoteResult.Status.OK, 3.5f),
+                new FeeUpdate("pärnu", "car", FeeQuoteResult.Status.OK, 3f),
+                new FeeUpdate("pärnu", "bike", FeeQuoteResult.Status.OK, 2f),
+                new FeeUpdate("tartu", "car", FeeQuoteResult.Status.NOT_FOUND, null),
+                new FeeUpdate("tartu", "bike", FeeQuoteResult.Status.NOT_FOUND, null)
+        ), FeeStreamService.changes(previous, current));
+    }
+
+    @Test
+    void unchangedMatrixHasNoChanges() {
+        Assertions.assertTrue(FeeStreamService.changes(
+                matrix(List.of("tartu"), Float.NaN, 2), matrix(List.of("tartu"), Float.NaN, 2)).isEmpty());
+    }
+
+    private static FeeMatrix matrix(List<String> cities, float... fees) {
+        CityStations cityStations = new CityStations(cities.stream()
+                .map(city -> new CityStation(city, city + "-station"))
+                .toList());
+        return new FeeMatrix(cityStations, VEHICLES, fees, null, 0);
+    }
+}
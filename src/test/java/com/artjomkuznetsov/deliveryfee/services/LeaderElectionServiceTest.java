@@ -0,0 +1,63 @@
+package com.artjomkuznetsov.deliveryfee.services;
+
+import com.artjomkuznetsov.deliveryfee.metrics.WeatherIngestionMetrics;
+import com.artjomkuznetsov.deliveryfee.repositories.SchedulerLeaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+
+import static org.awaitility.Awaitility.await;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LeaderElectionServiceTest {
+    @Autowired
+    private SchedulerLeaseRepository leaseRepository;
+
+    @Test
+    void onlyOneInstanceIsLeaderUntilItReleasesTheLease() {
+        LeaderElectionService first = instance("first", Duration.ofMinutes(1));
+        LeaderElectionService second = instance("second", Duration.ofMinutes(1));
+
+        first.renewLease();
+        second.renewLease();
+        Assertions.assertTrue(first.isLeader());
+        Assertions.assertFalse(second.isLeader());
+
+        first.renewLease();
+        Assertions.assertTrue(first.isLeader());
+
+        first.releaseLease();
+        second.renewLease();
+        Assertions.assertFalse(first.isLeader());
+        Assertions.assertTrue(second.isLeader());
+        second.releaseLease();
+    }
+
+    @Test
+    void leaseIsTakenOverAfterLeaderStopsRenewingIt() {
+        LeaderElectionService first = instance("first", Duration.ofMillis(300));
+        LeaderElectionService second = instance("second", Duration.ofMillis(300));
+
+        first.renewLease();
+        Assertions.assertTrue(first.isLeader());
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> {
+            second.renewLease();
+            return second.isLeader();
+        });
+        Assertions.assertFalse(first.isLeader());
+        second.releaseLease();
+    }
+
+    private LeaderElectionService instance(String id, Duration leaseDuration) {
+        return new LeaderElectionService(leaseRepository, new WeatherIngestionMetrics(new SimpleMeterRegistry()),
+                id, leaseDuration, leaseDuration.dividedBy(3));
+    }
+}
@@ -0,0 +1,79 @@
+package com.artjomkuznetsov.deliveryfee.services;
+
+import com.artjomkuznetsov.deliveryfee.metrics.WeatherRetentionMetrics;
+import com.artjomkuznetsov.deliveryfee.models.WeatherData;
+import com.artjomkuznetsov.deliveryfee.models.WeatherDataRollup;
+import com.artjomkuznetsov.deliveryfee.repositories.WeatherDataRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.WeatherDataRollupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+@DataJpaTest
+@TestPropertySource(properties = "spring.flyway.locations=classpath:db/migration")
+class RetentionServiceTest {
+    private static final long DAY = 86400L;
+    private static final Instant NOW = Instant.parse("2024-03-18T12:00:00Z");
+    private static final long TODAY = Instant.parse("2024-03-18T00:00:00Z").getEpochSecond();
+
+    @Autowired
+    private WeatherDataRepository weatherDataRepository;
+    @Autowired
+    private WeatherDataRollupRepository rollupRepository;
+
+    private RetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        retentionService = new RetentionService(weatherDataRepository, rollupRepository,
+                new WeatherRetentionMetrics(new SimpleMeterRegistry()), Mockito.mock(LeaderElectionService.class),
+                Clock.fixed(NOW, ZoneOffset.UTC), 2, 10);
+    }
+
+    @Test
+    void applyRetentionRollsUpExpiredObservationsAndPurgesTheRest() {
+        weatherDataRepository.upsertAll(List.of(
+                observation(TODAY - 20 * DAY + 3600),
+                observation(TODAY - 5 * DAY + 3600),
+                observation(TODAY - 5 * DAY + 7200),
+                observation(TODAY - 2 * DAY + 3600),
+                observation(TODAY + 3600)));
+        WeatherDataRollup expiredRollup = new WeatherDataRollup();
+        expiredRollup.setStation("Tallinn-Harku");
+        expiredRollup.setDay(TODAY - 11 * DAY);
+        rollupRepository.save(expiredRollup);
+
+        RetentionService.Result result = new RetentionService.Result();
+        retentionService.applyRetention(NOW, result);
+
+        Assertions.assertEquals(3, result.observations);
+        Assertions.assertEquals(1, result.rollups);
+        Assertions.assertEquals(2, weatherDataRepository.count());
+        Assertions.assertEquals(TODAY - 2 * DAY + 3600, weatherDataRepository.findOldestObservationTimestamp(Long.MIN_VALUE));
+        List<WeatherDataRollup> rollups = rollupRepository.findAll();
+        Assertions.assertEquals(1, rollups.size());
+        Assertions.assertEquals(TODAY - 5 * DAY, rollups.get(0).getDay());
+        Assertions.assertEquals(2, rollups.get(0).getObservations());
+    }
+
+    @Test
+    void rollupRetentionShorterThanObservationRetentionIsRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RetentionService(weatherDataRepository,
+                rollupRepository, new WeatherRetentionMetrics(new SimpleMeterRegistry()), Mockito.mock(LeaderElectionService.class),
+                Clock.systemUTC(), 10, 2));
+    }
+
+    private static WeatherData observation(long timestamp) {
+        return new WeatherData("Tallinn-Harku", "26038", 1, 2, "", timestamp);
+    }
+}
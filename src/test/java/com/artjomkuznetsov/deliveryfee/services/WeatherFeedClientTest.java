@@ -0,0 +1,240 @@
+package com.artjomkuznetsov.deliveryfee.services;
+
+import com.artjomkuznetsov.deliveryfee.config.WeatherApiProperties;
+import com.artjomkuznetsov.deliveryfee.exceptions.WeatherFeedException;
+import com.artjomkuznetsov.deliveryfee.metrics.WeatherFeedMetrics;
+import com.artjomkuznetsov.deliveryfee.utils.CircuitBreaker;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class WeatherFeedClientTest {
+    private static final String OBSERVATIONS = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <observations timestamp="1710681299">
+                <station>
+                    <name>Tallinn-Harku</name>
+                    <wmocode>26038</wmocode>
+                    <phenomenon></phenomenon>
+                    <airtemperature>2.4</airtemperature>
+                    <windspeed>5.3</windspeed>
+                </station>
+            </observations>
+            """;
+
+    private HttpServer server;
+    private HttpClient httpClient;
+    private SimpleMeterRegistry registry;
+    private WeatherFeedClient client;
+    private final List<String> ifNoneMatchHeaders = new ArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile String body = OBSERVATIONS;
+    private volatile String eTag;
+    private volatile boolean honourConditionalRequests = true;
+    private volatile int failingRequests;
+    private volatile long responseDelayMillis;
+    private Instant now = Instant.parse("2024-03-17T13:15:00Z");
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/observations.php", this::serveObservations);
+        server.start();
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        client = createClient(3, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        httpClient.close();
+    }
+
+    @Test
+    void fetchIfChangedSkipsNotModifiedFeed() {
+        eTag = "\"v1\"";
+        Assertions.assertEquals(Optional.of(OBSERVATIONS), fetch());
+        Assertions.assertEquals(Optional.empty(), fetch());
+        Assertions.assertEquals("\"v1\"", ifNoneMatchHeaders.get(1));
+    }
+
+    @Test
+    void fetchIfChangedHandlesFeedWithNewETag() {
+        eTag = "\"v1\"";
+        fetch();
+        eTag = "\"v2\"";
+        body = OBSERVATIONS.replace("2.4", "-1.0");
+        Assertions.assertEquals(Optional.of(body), fetch());
+    }
+
+    @Test
+    void fetchIfChangedSkipsSameETagWhenServerIgnoresConditionalRequests() {
+        eTag = "\"v1\"";
+        honourConditionalRequests = false;
+        fetch();
+        Assertions.assertEquals(Optional.empty(), fetch());
+    }
+
+    @Test
+    void fetchIfChangedComparesContentHashWithoutValidators() {
+        Assertions.assertEquals(Optional.of(OBSERVATIONS), fetch());
+        Assertions.assertEquals(Optional.empty(), fetch());
+
+        body = OBSERVATIONS.replace("2.4", "-1.0");
+        Assertions.assertEquals(Optional.of(body), fetch());
+    }
+
+    @Test
+    void fetchIfChangedHandlesSameFeedAgainAfterHandlerFailure() {
+        CompletionException e = Assertions.assertThrows(CompletionException.class, () -> client.fetchIfChanged(input -> {
+            throw new IllegalStateException("The database is not available.");
+        }).join());
+        Assertions.assertInstanceOf(WeatherFeedException.class, e.getCause());
+        Assertions.assertEquals(Optional.of(OBSERVATIONS), fetch());
+    }
+
+    @Test
+    void fetchIfChangedRetriesServerErrors() {
+        client = createClient(3, 5);
+        failingRequests = 2;
+        Assertions.assertEquals(Optional.of(OBSERVATIONS), fetch());
+        Assertions.assertEquals(3, requests.get());
+        Assertions.assertEquals(2, registry.get("weather.feed.retries").counter().count());
+        Assertions.assertFalse(client.isStale());
+    }
+
+    @Test
+    void fetchIfChangedFailsAfterMaxAttemptsAndMarksDataStale() {
+        client = createClient(2, 5);
+        failingRequests = Integer.MAX_VALUE;
+        assertFeedException();
+        Assertions.assertEquals(2, requests.get());
+        Assertions.assertTrue(client.isStale());
+        Assertions.assertEquals(1, registry.get("weather.feed.stale").gauge().value());
+        Assertions.assertEquals(1, registry.get("weather.feed.fetch").tag("outcome", "error").timer().count());
+
+        failingRequests = 0;
+        Assertions.assertEquals(Optional.of(OBSERVATIONS), fetch());
+        Assertions.assertFalse(client.isStale());
+    }
+
+    @Test
+    void fetchIfChangedTimesOutSlowServer() {
+        client = createClient(1, 5);
+        responseDelayMillis = 2000;
+        long start = System.nanoTime();
+        assertFeedException();
+        Assertions.assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofMillis(1500)) < 0);
+    }
+
+    @Test
+    void fetchIfChangedStopsRequestingWhileCircuitIsOpen() {
+        failingRequests = Integer.MAX_VALUE;
+        assertFeedException();
+        Assertions.assertEquals(CircuitBreaker.State.OPEN, client.getCircuitState());
+        Assertions.assertEquals(2, registry.get("weather.feed.circuit.state").gauge().value());
+
+        int requestsWhenOpened = requests.get();
+        assertFeedException();
+        Assertions.assertEquals(requestsWhenOpened, requests.get());
+        Assertions.assertTrue(client.isStale());
+
+        now = now.plus(Duration.ofMinutes(30));
+        failingRequests = 0;
+        Assertions.assertEquals(Optional.of(OBSERVATIONS), fetch());
+        Assertions.assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitState());
+    }
+
+    private WeatherFeedClient createClient(int maxAttempts, int failureThreshold) {
+        registry = new SimpleMeterRegistry();
+        WeatherApiProperties properties = new WeatherApiProperties(
+                URI.create("http://localhost:" + server.getAddress().getPort() + "/observations.php"),
+                Duration.ofSeconds(1), Duration.ofMillis(500), maxAttempts, Duration.ofMillis(10), Duration.ofMillis(50),
+                Duration.ofSeconds(10), failureThreshold, Duration.ofMinutes(30));
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        return new WeatherFeedClient(httpClient, properties, new WeatherFeedMetrics(registry), clock);
+    }
+
+    private Optional<String> fetch() {
+        return client.fetchIfChanged(this::read).join();
+    }
+
+    private void assertFeedException() {
+        CompletionException e = Assertions.assertThrows(CompletionException.class, this::fetch);
+        Assertions.assertInstanceOf(WeatherFeedException.class, e.getCause());
+    }
+
+    private String read(InputStream input) throws IOException {
+        return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private void serveObservations(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+        ifNoneMatchHeaders.add(ifNoneMatch);
+        if (responseDelayMillis > 0) {
+            try {
+                Thread.sleep(responseDelayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failingRequests > 0) {
+            failingRequests--;
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        if (eTag != null) {
+            exchange.getResponseHeaders().set("ETag", eTag);
+            if (honourConditionalRequests && eTag.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+                return;
+            }
+        }
+        byte[] response = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=UTF-8");
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(response);
+        }
+    }
+}
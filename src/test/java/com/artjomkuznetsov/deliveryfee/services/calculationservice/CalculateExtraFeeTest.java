@@ -1,16 +1,22 @@
 package com.artjomkuznetsov.deliveryfee.services.calculationservice;
 
+import com.artjomkuznetsov.deliveryfee.cache.FeeRuleCache;
+import com.artjomkuznetsov.deliveryfee.cache.FeeRuleHistory;
+import com.artjomkuznetsov.deliveryfee.cache.LatestWeatherDataCache;
+import com.artjomkuznetsov.deliveryfee.cache.StationRegistry;
+import com.artjomkuznetsov.deliveryfee.metrics.FeeMetrics;
 import com.artjomkuznetsov.deliveryfee.models.WeatherData;
 import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.AirTemperatureConditions;
 import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WeatherPhenomenonConditions;
 import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WindSpeedConditions;
 import com.artjomkuznetsov.deliveryfee.repositories.*;
 import com.artjomkuznetsov.deliveryfee.services.CalculationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -20,15 +26,24 @@ import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
 class CalculateExtraFeeTest {
-    @InjectMocks
     private CalculationService calculationService;
 
+    @Mock
+    private WeatherDataRepository weatherDataRepository;
+
+    @Mock
+    private FeeRuleVersionRepository feeRuleVersionRepository;
+
+    @Mock
+    private RegionalBaseFeeRepository baseFeeRepository;
     @Mock
     private AirTemperatureConditionsRepository airTemperatureRepository;
     @Mock
     private WeatherPhenomenonConditionsRepository weatherPhenomenonRepository;
     @Mock
     private WindSpeedConditionsRepository windSpeedRepository;
+    @Mock
+    private CityStationRepository cityStationRepository;
 
     AirTemperatureConditions airTemperatureConditions = new AirTemperatureConditions(
             List.of("scooter", "bike"), -10, 1, -10, 0, 0.5f);
@@ -46,6 +61,12 @@ class CalculateExtraFeeTest {
         Mockito.lenient().when(airTemperatureRepository.findFirstBy()).thenReturn(Optional.of(airTemperatureConditions));
         Mockito.lenient().when(windSpeedRepository.findFirstBy()).thenReturn(Optional.of(windSpeedConditions));
         Mockito.lenient().when(weatherPhenomenonRepository.findFirstBy()).thenReturn(Optional.of(weatherPhenomenonConditions));
+
+        StationRegistry stationRegistry = new StationRegistry(cityStationRepository);
+        FeeRuleCache feeRuleCache = new FeeRuleCache(baseFeeRepository, airTemperatureRepository, windSpeedRepository, weatherPhenomenonRepository);
+        calculationService = new CalculationService(weatherDataRepository, feeRuleCache,
+                new FeeRuleHistory(feeRuleVersionRepository, new ObjectMapper().findAndRegisterModules(), feeRuleCache), stationRegistry, new LatestWeatherDataCache(weatherDataRepository), 3600,
+                new FeeMetrics(new SimpleMeterRegistry()));
     }
 
     // ---------------------------------------------------
@@ -148,6 +169,13 @@ class CalculateExtraFeeTest {
         Assertions.assertEquals(-1, extraFee);
     }
 
+    @Test
+    void calculateExtraFeeScooterUnknownPhenomenonReturns0() {
+        weatherData.setWeatherPhenomenon("Volcanic ash");
+        float extraFee = calculationService.calculateExtraFee("scooter", weatherData);
+        Assertions.assertEquals(0, extraFee);
+    }
+
     @Test
     void calculateExtraFeeCarThunderReturns0() {
         weatherData.setWeatherPhenomenon("Thunder");
@@ -1,28 +1,48 @@
 package com.artjomkuznetsov.deliveryfee.services.calculationservice;
 
+import com.artjomkuznetsov.deliveryfee.cache.FeeRuleCache;
+import com.artjomkuznetsov.deliveryfee.cache.FeeRuleHistory;
+import com.artjomkuznetsov.deliveryfee.cache.LatestWeatherDataCache;
+import com.artjomkuznetsov.deliveryfee.cache.StationRegistry;
+import com.artjomkuznetsov.deliveryfee.metrics.FeeMetrics;
+import com.artjomkuznetsov.deliveryfee.models.CityStation;
 import com.artjomkuznetsov.deliveryfee.models.RegionalBaseFee;
-import com.artjomkuznetsov.deliveryfee.repositories.RegionalBaseFeeRepository;
+import com.artjomkuznetsov.deliveryfee.repositories.*;
 import com.artjomkuznetsov.deliveryfee.services.CalculationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Optional;
+import java.util.List;
 
 
 @ExtendWith(MockitoExtension.class)
 public class CalculateRegionalBaseFeeTest {
 
-    @InjectMocks
     private CalculationService calculationService;
 
+    @Mock
+    private WeatherDataRepository weatherDataRepository;
+
+    @Mock
+    private FeeRuleVersionRepository feeRuleVersionRepository;
+
+    @Mock
+    private CityStationRepository cityStationRepository;
     @Mock
     private RegionalBaseFeeRepository baseFeeRepository;
+    @Mock
+    private AirTemperatureConditionsRepository airTemperatureRepository;
+    @Mock
+    private WeatherPhenomenonConditionsRepository weatherPhenomenonRepository;
+    @Mock
+    private WindSpeedConditionsRepository windSpeedRepository;
 
     RegionalBaseFee regionalBaseFeeTallinn = new RegionalBaseFee("tallinn", 4, 3.5f, 3);
     RegionalBaseFee regionalBaseFeeTartu = new RegionalBaseFee("tartu", 3.5f, 3, 2.5f);
@@ -30,10 +50,18 @@ public class CalculateRegionalBaseFeeTest {
 
     @BeforeEach
     void setUp() {
-        Mockito.lenient().when(baseFeeRepository.findByCity("tallinn")).thenReturn(Optional.of(regionalBaseFeeTallinn));
-        Mockito.lenient().when(baseFeeRepository.findByCity("tartu")).thenReturn(Optional.of(regionalBaseFeeTartu));
-        Mockito.lenient().when(baseFeeRepository.findByCity("pärnu")).thenReturn(Optional.of(regionalBaseFeeParnu));
-
+        Mockito.lenient().when(baseFeeRepository.findAll())
+                .thenReturn(List.of(regionalBaseFeeTallinn, regionalBaseFeeTartu, regionalBaseFeeParnu));
+
+        Mockito.lenient().when(cityStationRepository.findAll()).thenReturn(List.of(
+                new CityStation("tallinn", "Tallinn-Harku"),
+                new CityStation("tartu", "Tartu-Tõravere"),
+                new CityStation("pärnu", "Pärnu")));
+        StationRegistry stationRegistry = new StationRegistry(cityStationRepository);
+        FeeRuleCache feeRuleCache = new FeeRuleCache(baseFeeRepository, airTemperatureRepository, windSpeedRepository, weatherPhenomenonRepository);
+        calculationService = new CalculationService(weatherDataRepository, feeRuleCache,
+                new FeeRuleHistory(feeRuleVersionRepository, new ObjectMapper().findAndRegisterModules(), feeRuleCache), stationRegistry, new LatestWeatherDataCache(weatherDataRepository), 3600,
+                new FeeMetrics(new SimpleMeterRegistry()));
     }
 
     @Test
@@ -1,5 +1,16 @@
 package com.artjomkuznetsov.deliveryfee.services.calculationservice;
 
+import com.artjomkuznetsov.deliveryfee.cache.FeeRuleCache;
+import com.artjomkuznetsov.deliveryfee.cache.FeeRuleHistory;
+import com.artjomkuznetsov.deliveryfee.cache.LatestWeatherDataCache;
+import com.artjomkuznetsov.deliveryfee.cache.StationRegistry;
+import com.artjomkuznetsov.deliveryfee.controllers.requests.FeeQuoteRequest;
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeQuoteResult;
+import com.artjomkuznetsov.deliveryfee.controllers.responses.FeeRulesDocument;
+import com.artjomkuznetsov.deliveryfee.exceptions.VehicleForbiddenException;
+import com.artjomkuznetsov.deliveryfee.metrics.FeeMetrics;
+import com.artjomkuznetsov.deliveryfee.models.CityStation;
+import com.artjomkuznetsov.deliveryfee.models.FeeRuleVersion;
 import com.artjomkuznetsov.deliveryfee.models.RegionalBaseFee;
 import com.artjomkuznetsov.deliveryfee.models.WeatherData;
 import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.AirTemperatureConditions;
@@ -7,25 +18,31 @@ import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WeatherPhenomeno
 import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.WindSpeedConditions;
 import com.artjomkuznetsov.deliveryfee.repositories.*;
 import com.artjomkuznetsov.deliveryfee.services.CalculationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.coyote.BadRequestException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
 public class CalculateTotalFeeTest {
-    @InjectMocks
     private CalculationService calculationService;
+    private LatestWeatherDataCache latestWeatherDataCache;
+    private StationRegistry stationRegistry;
+    private FeeRuleCache feeRuleCache;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @Mock
     private RegionalBaseFeeRepository baseFeeRepository;
@@ -33,6 +50,12 @@ public class CalculateTotalFeeTest {
     @Mock
     private WeatherDataRepository weatherDataRepository;
 
+    @Mock
+    private FeeRuleVersionRepository feeRuleVersionRepository;
+
+    @Mock
+    private CityStationRepository cityStationRepository;
+
     @Mock
     private AirTemperatureConditionsRepository airTemperatureRepository;
 
@@ -59,13 +82,23 @@ public class CalculateTotalFeeTest {
 
     @BeforeEach
     void setUp() {
-        Mockito.lenient().when(baseFeeRepository.findByCity("tallinn")).thenReturn(Optional.of(regionalBaseFeeTallinn));
-        Mockito.lenient().when(baseFeeRepository.findByCity("tartu")).thenReturn(Optional.of(regionalBaseFeeTartu));
-        Mockito.lenient().when(baseFeeRepository.findByCity("pärnu")).thenReturn(Optional.of(regionalBaseFeeParnu));
+        Mockito.lenient().when(baseFeeRepository.findAll())
+                .thenReturn(List.of(regionalBaseFeeTallinn, regionalBaseFeeTartu, regionalBaseFeeParnu));
 
         Mockito.lenient().when(airTemperatureRepository.findFirstBy()).thenReturn(Optional.of(airTemperatureConditions));
         Mockito.lenient().when(windSpeedRepository.findFirstBy()).thenReturn(Optional.of(windSpeedConditions));
         Mockito.lenient().when(weatherPhenomenonRepository.findFirstBy()).thenReturn(Optional.of(weatherPhenomenonConditions));
+
+        Mockito.lenient().when(cityStationRepository.findAll()).thenReturn(List.of(
+                new CityStation("tallinn", "Tallinn-Harku"),
+                new CityStation("tartu", "Tartu-Tõravere"),
+                new CityStation("pärnu", "Pärnu")));
+        stationRegistry = new StationRegistry(cityStationRepository);
+        feeRuleCache = new FeeRuleCache(baseFeeRepository, airTemperatureRepository, windSpeedRepository, weatherPhenomenonRepository);
+        latestWeatherDataCache = new LatestWeatherDataCache(weatherDataRepository);
+        calculationService = new CalculationService(weatherDataRepository, feeRuleCache,
+                new FeeRuleHistory(feeRuleVersionRepository, new ObjectMapper().findAndRegisterModules(), feeRuleCache), stationRegistry, latestWeatherDataCache, 3600,
+                new FeeMetrics(meterRegistry));
     }
 
 
@@ -87,7 +120,8 @@ public class CalculateTotalFeeTest {
 
     @Test
     void calculateTotalFeeByDateTimeTallinnBikeAirTempMinus2Returns3_5() throws BadRequestException {
-        Mockito.lenient().when(weatherDataRepository.findByStationAndObservationTimestamp("Tallinn-Harku", 1710681299L))
+        Mockito.lenient().when(weatherDataRepository
+                        .findFirstByStationAndObservationTimestampBetweenOrderByObservationTimestampDesc("Tallinn-Harku", 1710677700L, 1710681300L))
                 .thenReturn(Optional.of(new WeatherData("Tallinn-Harku", "26038", -2, 4, "", 1710681299L)));
         float fee = calculationService.calculateTotalFee(Optional.of("tallinn"), Optional.of("bike"),
                 Optional.of(LocalDateTime.of(2024, Month.MARCH, 17, 15, 30, 40)));
@@ -95,4 +129,130 @@ public class CalculateTotalFeeTest {
         Assertions.assertEquals(3.5, fee);
     }
 
+    @Test
+    void calculateFeesUsesRulesInForceAtRequestedTime() throws Exception {
+        Mockito.lenient().when(weatherDataRepository.findFirstByStationAndObservationTimestampBetweenOrderByObservationTimestampDesc(
+                        Mockito.eq("Tallinn-Harku"), Mockito.anyLong(), Mockito.anyLong()))
+                .thenReturn(Optional.of(new WeatherData("Tallinn-Harku", "26038", 5, 5, "", 1710681299L)));
+        Mockito.when(feeRuleVersionRepository.findByIdGreaterThanOrderById(0L)).thenReturn(List.of(
+                version(1, Instant.EPOCH, regionalBaseFeeTallinn),
+                version(2, Instant.parse("2024-03-17T14:00:00Z"), new RegionalBaseFee("tallinn", 6, 5.5f, 5))));
+
+        List<FeeQuoteResult> results = calculationService.calculateFees(List.of(
+                new FeeQuoteRequest("tallinn", "car", LocalDateTime.of(2024, Month.MARCH, 17, 15, 30, 40)),
+                new FeeQuoteRequest("tallinn", "car", LocalDateTime.of(2024, Month.MARCH, 17, 16, 30, 40))));
+
+        Assertions.assertEquals(4, results.get(0).deliveryFee());
+        Assertions.assertEquals(6, results.get(1).deliveryFee());
+        Assertions.assertEquals(6, calculationService.calculateTotalFee(Optional.of("tallinn"), Optional.of("car"),
+                Optional.of(LocalDateTime.of(2024, Month.MARCH, 18, 10, 0))));
+        Mockito.verify(feeRuleVersionRepository, Mockito.times(1)).findByIdGreaterThanOrderById(0L);
+    }
+
+    private FeeRuleVersion version(long id, Instant effectiveFrom, RegionalBaseFee tallinn) throws Exception {
+        FeeRulesDocument rules = new FeeRulesDocument(FeeRulesDocument.VERSION, effectiveFrom, List.of(tallinn),
+                airTemperatureConditions, windSpeedConditions, weatherPhenomenonConditions);
+        FeeRuleVersion version = new FeeRuleVersion(effectiveFrom.toEpochMilli(),
+                new ObjectMapper().findAndRegisterModules().writeValueAsString(rules));
+        version.setId(id);
+        return version;
+    }
+
+    @Test
+    void calculateTotalFeeLoadsRulesOnlyOnce() throws BadRequestException {
+        Mockito.lenient().when(weatherDataRepository.findFirstByStationOrderByObservationTimestampDesc("Tallinn-Harku"))
+                .thenReturn(new WeatherData("Tallinn-Harku", "26038", 5, 5, "", 1710412650L));
+        calculationService.calculateTotalFee(Optional.of("tallinn"), Optional.of("car"));
+        calculationService.calculateTotalFee(Optional.of("tallinn"), Optional.of("bike"));
+
+        Mockito.verify(baseFeeRepository, Mockito.times(1)).findAll();
+        Mockito.verify(airTemperatureRepository, Mockito.times(1)).findFirstBy();
+    }
+
+    @Test
+    void calculateTotalFeeUsesCityAddedToRegistry() throws BadRequestException {
+        latestWeatherDataCache.publish(new WeatherData("Narva", "26058", 5, 5, "", 1710412650L));
+        Assertions.assertThrows(BadRequestException.class,
+                () -> calculationService.calculateTotalFee(Optional.of("Narva"), Optional.of("car")));
+
+        Mockito.when(cityStationRepository.findAll()).thenReturn(List.of(
+                new CityStation("tallinn", "Tallinn-Harku"), new CityStation("narva", "Narva")));
+        Mockito.when(baseFeeRepository.findAll())
+                .thenReturn(List.of(regionalBaseFeeTallinn, new RegionalBaseFee("narva", 3.5f, 3, 2.5f)));
+        stationRegistry.reload();
+        feeRuleCache.reload();
+
+        Assertions.assertEquals(3.5, calculationService.calculateTotalFee(Optional.of("Narva"), Optional.of("car")));
+        Assertions.assertEquals(List.of("tallinn", "narva"), calculationService.getFeeMatrix().getCities());
+    }
+
+    @Test
+    void calculateTotalFeeUsesPublishedWeatherData() throws BadRequestException {
+        latestWeatherDataCache.publish(new WeatherData("Tallinn-Harku", "26038", -12, 15, "", 1710412650L));
+        latestWeatherDataCache.publish(new WeatherData("Tallinn-Harku", "26038", 5, 5, "", 1710409050L));
+        float fee = calculationService.calculateTotalFee(Optional.of("tallinn"), Optional.of("bike"));
+
+        Assertions.assertEquals(4.5, fee);
+        Mockito.verify(weatherDataRepository, Mockito.never()).findFirstByStationOrderByObservationTimestampDesc("Tallinn-Harku");
+    }
+
+    @Test
+    void calculateFeesReturnsOneResultPerItemAndLooksUpWeatherOncePerStationAndTime() {
+        Mockito.lenient().when(weatherDataRepository
+                        .findFirstByStationAndObservationTimestampBetweenOrderByObservationTimestampDesc("Tallinn-Harku", 1710677700L, 1710681300L))
+                .thenReturn(Optional.of(new WeatherData("Tallinn-Harku", "26038", -2, 25, "", 1710681299L)));
+        LocalDateTime dateTime = LocalDateTime.of(2024, Month.MARCH, 17, 15, 30, 40);
+
+        List<FeeQuoteResult> results = calculationService.calculateFees(List.of(
+                new FeeQuoteRequest("tallinn", "car", dateTime),
+                new FeeQuoteRequest("Tallinn", "bike", dateTime),
+                new FeeQuoteRequest("tallinn", "plane", dateTime)));
+
+        Assertions.assertEquals(3, results.size());
+        Assertions.assertEquals(FeeQuoteResult.Status.OK, results.get(0).status());
+        Assertions.assertEquals(4, results.get(0).deliveryFee());
+        Assertions.assertEquals(FeeQuoteResult.Status.FORBIDDEN, results.get(1).status());
+        Assertions.assertEquals(FeeQuoteResult.Status.BAD_REQUEST, results.get(2).status());
+        Mockito.verify(weatherDataRepository, Mockito.times(1))
+                .findFirstByStationAndObservationTimestampBetweenOrderByObservationTimestampDesc("Tallinn-Harku", 1710677700L, 1710681300L);
+    }
+
+    @Test
+    void calculateFeesAnswersNullItemAsBadRequest() {
+        latestWeatherDataCache.publish(new WeatherData("Tallinn-Harku", "26038", 5, 5, "", 1710412650L));
+
+        List<FeeQuoteResult> results = calculationService.calculateFees(
+                Arrays.asList(new FeeQuoteRequest("tallinn", "car", null), null));
+
+        Assertions.assertEquals(2, results.size());
+        Assertions.assertEquals(FeeQuoteResult.Status.OK, results.get(0).status());
+        Assertions.assertEquals(FeeQuoteResult.Status.BAD_REQUEST, results.get(1).status());
+        Assertions.assertNotNull(results.get(1).error());
+    }
+
+    @Test
+    void calculateTotalFeeFollowsNewlyPublishedWeatherData() throws BadRequestException {
+        latestWeatherDataCache.publish(new WeatherData("Tallinn-Harku", "26038", 5, 5, "", 1710409050L));
+        Assertions.assertEquals(3, calculationService.calculateTotalFee(Optional.of("tallinn"), Optional.of("bike")));
+
+        latestWeatherDataCache.publish(new WeatherData("Tallinn-Harku", "26038", -12, 15, "", 1710412650L));
+        Assertions.assertEquals(4.5, calculationService.calculateTotalFee(Optional.of("tallinn"), Optional.of("bike")));
+    }
+
+    @Test
+    void calculateTotalFeeRecordsOutcomeByCityVehicleAndPath() throws BadRequestException {
+        latestWeatherDataCache.publish(new WeatherData("Tallinn-Harku", "26038", 5, 25, "", 1710412650L));
+        calculationService.calculateTotalFee(Optional.of("tallinn"), Optional.of("car"));
+        Assertions.assertThrows(VehicleForbiddenException.class,
+                () -> calculationService.calculateTotalFee(Optional.of("tallinn"), Optional.of("bike")));
+        Assertions.assertThrows(BadRequestException.class,
+                () -> calculationService.calculateTotalFee(Optional.of("london"), Optional.of("bike")));
+
+        Assertions.assertEquals(1, meterRegistry.get("fee.calculation")
+                .tags("city", "tallinn", "vehicle", "car", "path", "current", "outcome", "ok").timer().count());
+        Assertions.assertEquals(1, meterRegistry.get("fee.calculation")
+                .tags("city", "tallinn", "vehicle", "bike", "path", "current", "outcome", "forbidden").timer().count());
+        Assertions.assertEquals(1, meterRegistry.get("fee.calculation")
+                .tags("city", "unknown", "vehicle", "bike", "path", "current", "outcome", "bad_request").timer().count());
+    }
 }
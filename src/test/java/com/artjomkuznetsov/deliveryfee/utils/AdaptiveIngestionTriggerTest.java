@@ -0,0 +1,65 @@
+package com.artjomkuznetsov.deliveryfee.utils;
+
+import com.artjomkuznetsov.deliveryfee.config.WeatherScheduleProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.OptionalLong;
+
+class AdaptiveIngestionTriggerTest {
+    private static final WeatherScheduleProperties PROPERTIES = new WeatherScheduleProperties(true, Duration.ofHours(1),
+            Duration.ofMinutes(2), Duration.ofMinutes(1), Duration.ofSeconds(30), Duration.ofHours(1));
+    private static final Instant OBSERVED = Instant.parse("2024-03-18T10:14:59Z");
+
+    @Test
+    void firstRunStartsImmediately() {
+        Instant now = Instant.parse("2024-03-18T10:20:00Z");
+        Assertions.assertEquals(now, trigger(OptionalLong.empty(), false).nextExecution(context(now, false)));
+    }
+
+    @Test
+    void backsOffUntilLeadTimeBeforeNextObservation() {
+        Instant now = Instant.parse("2024-03-18T10:20:00Z");
+        Assertions.assertEquals(Instant.parse("2024-03-18T11:12:59Z"),
+                trigger(OptionalLong.of(OBSERVED.getEpochSecond()), false).nextExecution(context(now, true)));
+    }
+
+    @Test
+    void pollsWhileNextObservationIsDue() {
+        Instant now = Instant.parse("2024-03-18T11:13:30Z");
+        Assertions.assertEquals(now.plus(Duration.ofMinutes(1)),
+                trigger(OptionalLong.of(OBSERVED.getEpochSecond()), false).nextExecution(context(now, true)));
+    }
+
+    @Test
+    void retriesSoonAfterFailedFetch() {
+        Instant now = Instant.parse("2024-03-18T10:20:00Z");
+        Assertions.assertEquals(now.plus(Duration.ofSeconds(30)),
+                trigger(OptionalLong.of(OBSERVED.getEpochSecond()), true).nextExecution(context(now, true)));
+    }
+
+    @Test
+    void neverWaitsLongerThanMaxDelay() {
+        Instant now = Instant.parse("2024-03-18T08:00:00Z");
+        Assertions.assertEquals(now.plus(Duration.ofHours(1)),
+                trigger(OptionalLong.of(OBSERVED.getEpochSecond()), false).nextExecution(context(now, true)));
+    }
+
+    private static AdaptiveIngestionTrigger trigger(OptionalLong latestObservation, boolean failed) {
+        return new AdaptiveIngestionTrigger(PROPERTIES, () -> latestObservation, () -> failed);
+    }
+
+    private static SimpleTriggerContext context(Instant now, boolean ranBefore) {
+        SimpleTriggerContext context = new SimpleTriggerContext(Clock.fixed(now, ZoneOffset.UTC));
+        if (ranBefore) {
+            Instant previous = now.minusSeconds(5);
+            context.update(previous, previous, now);
+        }
+        return context;
+    }
+}
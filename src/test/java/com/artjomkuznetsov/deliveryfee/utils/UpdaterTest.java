@@ -0,0 +1,51 @@
+package com.artjomkuznetsov.deliveryfee.utils;
+
+import com.artjomkuznetsov.deliveryfee.exceptions.BadRequestBodyException;
+import com.artjomkuznetsov.deliveryfee.models.RegionalBaseFee;
+import com.artjomkuznetsov.deliveryfee.models.extra_weather_fee.AirTemperatureConditions;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class UpdaterTest {
+    @Test
+    void updatesFieldsAndSkipsIdCityAndUnknownFields() {
+        RegionalBaseFee fee = new RegionalBaseFee("Tallinn", 4f, 3.5f, 3f);
+        Updater.updateEntity(fee, Map.of("carFee", 5, "bikeFee", 2.5, "id", 7, "city", "Tartu", "unknown", 1));
+
+        Assertions.assertEquals(5f, fee.getCarFee());
+        Assertions.assertEquals(2.5f, fee.getBikeFee());
+        Assertions.assertEquals(3.5f, fee.getScooterFee());
+        Assertions.assertEquals(0, fee.getId());
+        Assertions.assertEquals("Tallinn", fee.getCity());
+    }
+
+    @Test
+    void skipsVehicleMask() {
+        AirTemperatureConditions conditions = new AirTemperatureConditions(List.of("bike"), -10f, 1f, -10f, 0f, 0.5f);
+        Updater.updateEntity(conditions, Map.of("vehicleMask", -1, "lessThan", -15));
+
+        Assertions.assertEquals(List.of("bike"), conditions.getVehicleTypes());
+        Assertions.assertEquals(-15f, conditions.getLessThan());
+    }
+
+    @Test
+    void leavesEntityUnchangedIfValueIsInvalid() {
+        RegionalBaseFee fee = new RegionalBaseFee("Tallinn", 4f, 3.5f, 3f);
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("carFee", 5);
+        fields.put("bikeFee", -1);
+
+        BadRequestBodyException negative = Assertions.assertThrows(BadRequestBodyException.class,
+                () -> Updater.updateEntity(fee, fields));
+        Assertions.assertEquals("bikeFee cannot be negative.", negative.getMessage());
+        Assertions.assertEquals(4f, fee.getCarFee());
+
+        BadRequestBodyException notNumber = Assertions.assertThrows(BadRequestBodyException.class,
+                () -> Updater.updateEntity(fee, Map.of("scooterFee", "1")));
+        Assertions.assertEquals("scooterFee must be a number.", notNumber.getMessage());
+    }
+}
@@ -0,0 +1,53 @@
+package com.artjomkuznetsov.deliveryfee.utils;
+
+import com.artjomkuznetsov.deliveryfee.models.WeatherData;
+import com.artjomkuznetsov.deliveryfee.models.WeatherPhenomenon;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+class WeatherObservationsCsvParserTest {
+    private static final String OBSERVATIONS = """
+            station,wmocode,timestamp,airtemperature,windspeed,phenomenon
+            Kuressaare linn,,1710681299,-1.2,3.1,Light snowfall
+            Tallinn-Harku,26038,1710681299,2.4,5.3,Heavy rain
+            Tartu-Tõravere,26242,1710684899,,1.2,
+            """;
+
+    private final WeatherObservationsCsvParser parser =
+            new WeatherObservationsCsvParser(List.of("Tallinn-Harku", "Tartu-Tõravere"));
+
+    @Test
+    void parseReadsOnlyRegisteredStations() throws IOException {
+        List<WeatherData> observations = parser.parse(input(OBSERVATIONS));
+
+        Assertions.assertEquals(2, observations.size());
+        WeatherData tallinn = observations.get(0);
+        Assertions.assertEquals("Tallinn-Harku", tallinn.getStation());
+        Assertions.assertEquals("26038", tallinn.getStationWMO());
+        Assertions.assertEquals(2.4f, tallinn.getAirTemperature());
+        Assertions.assertEquals(5.3f, tallinn.getWindSpeed());
+        Assertions.assertEquals(WeatherPhenomenon.HEAVY_RAIN, tallinn.getWeatherPhenomenonCode());
+        Assertions.assertEquals(1710681299L, tallinn.getObservationTimestamp());
+
+        WeatherData tartu = observations.get(1);
+        Assertions.assertEquals(0, tartu.getAirTemperature());
+        Assertions.assertEquals(WeatherPhenomenon.NONE, tartu.getWeatherPhenomenonCode());
+        Assertions.assertEquals(1710684899L, tartu.getObservationTimestamp());
+    }
+
+    @Test
+    void parseRejectsInvalidLine() {
+        IOException e = Assertions.assertThrows(IOException.class,
+                () -> parser.parse(input("Tallinn-Harku,26038,yesterday,2.4,5.3,\n")));
+        Assertions.assertEquals("Line 1 contains an invalid number.", e.getMessage());
+    }
+
+    private static ByteArrayInputStream input(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,97 @@
+package com.artjomkuznetsov.deliveryfee.utils;
+
+import com.artjomkuznetsov.deliveryfee.models.WeatherData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+class WeatherObservationsParserTest {
+    private static final String OBSERVATIONS = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <observations timestamp="1710681299">
+                <station>
+                    <name>Kuressaare linn</name>
+                    <wmocode></wmocode>
+                    <phenomenon>Light snowfall</phenomenon>
+                    <airtemperature>-1.2</airtemperature>
+                    <windspeed>3.1</windspeed>
+                </station>
+                <station>
+                    <name>Tallinn-Harku</name>
+                    <wmocode>26038</wmocode>
+                    <longitude>24.602891666624284</longitude>
+                    <latitude>59.398122222355134</latitude>
+                    <phenomenon>Heavy rain</phenomenon>
+                    <visibility>35.0</visibility>
+                    <precipitations>0</precipitations>
+                    <airtemperature>2.4</airtemperature>
+                    <windspeed>5.3</windspeed>
+                </station>
+                <station>
+                    <name>Tartu-Tõravere</name>
+                    <wmocode>26242</wmocode>
+                    <phenomenon></phenomenon>
+                    <airtemperature></airtemperature>
+                    <windspeed>1.2</windspeed>
+                </station>
+                <station>
+                    <name>Pärnu-Sauga</name>
+                    <wmocode></wmocode>
+                    <phenomenon/>
+                    <airtemperature>3.0</airtemperature>
+                    <windspeed/>
+                </station>
+            </observations>
+            """;
+
+    private final WeatherObservationsParser parser =
+            new WeatherObservationsParser(List.of("Tallinn-Harku", "Tartu-Tõravere", "Pärnu"));
+
+    @Test
+    void parseReturnsOnlyTrackedStations() throws XMLStreamException {
+        List<WeatherData> observations = parse(OBSERVATIONS);
+        Assertions.assertEquals(List.of("Tallinn-Harku", "Tartu-Tõravere"),
+                observations.stream().map(WeatherData::getStation).toList());
+    }
+
+    @Test
+    void parseReadsObservationFields() throws XMLStreamException {
+        WeatherData tallinn = parse(OBSERVATIONS).get(0);
+        Assertions.assertEquals("26038", tallinn.getStationWMO());
+        Assertions.assertEquals(2.4f, tallinn.getAirTemperature());
+        Assertions.assertEquals(5.3f, tallinn.getWindSpeed());
+        Assertions.assertEquals("Heavy rain", tallinn.getWeatherPhenomenon());
+        Assertions.assertEquals(1710681299L, tallinn.getObservationTimestamp());
+    }
+
+    @Test
+    void parseLeavesEmptyValuesUnset() throws XMLStreamException {
+        WeatherData tartu = parse(OBSERVATIONS).get(1);
+        Assertions.assertEquals(0, tartu.getAirTemperature());
+        Assertions.assertEquals(1.2f, tartu.getWindSpeed());
+        Assertions.assertEquals("", tartu.getWeatherPhenomenon());
+    }
+
+    @Test
+    void parseMalformedDocumentThrowsXMLStreamException() {
+        Assertions.assertThrows(XMLStreamException.class, () -> parse("<observations><station><name>Pärnu</station>"));
+    }
+
+    @Test
+    void parseStationBeforeTimestampThrowsXMLStreamException() {
+        Assertions.assertThrows(XMLStreamException.class, () -> parse("""
+                <archive>
+                    <station><name>Tallinn-Harku</name><airtemperature>2.4</airtemperature></station>
+                    <observations timestamp="1710681299"/>
+                </archive>
+                """));
+    }
+
+    private List<WeatherData> parse(String document) throws XMLStreamException {
+        return parser.parse(new ByteArrayInputStream(document.getBytes(StandardCharsets.UTF_8)));
+    }
+}